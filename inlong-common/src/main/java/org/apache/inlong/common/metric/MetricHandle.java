@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.metric;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MetricHandle
+ *
+ * <p/>
+ * The counters of one dimension tuple, resolved once by MetricItemSet.findMetricHandle.
+ * Hot paths keep the handle and add to the striped counters by index, without building
+ * the dimension map or the dimension key per event. The counters are drained into
+ * the MetricItem of the same dimensions on each snapshot, so the exported items are unchanged.
+ */
+public class MetricHandle {
+
+    private final Map<String, String> dimensions;
+    private final String dimensionsKey;
+    private final String[] metricNames;
+    private final LongAdder[] counters;
+    // the values already drained to the metric items, guarded by this
+    private final long[] drainedValues;
+
+    /**
+     * Constructor
+     *
+     * @param dimensions the dimensions of the handle
+     * @param metricNames the metric names of the counters, the index of the name is the counter index
+     */
+    public MetricHandle(Map<String, String> dimensions, String[] metricNames) {
+        this.dimensions = Collections.unmodifiableMap(new HashMap<>(dimensions));
+        this.dimensionsKey = MetricUtils.getDimensionsKey(dimensions);
+        this.metricNames = metricNames;
+        this.counters = new LongAdder[metricNames.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        this.drainedValues = new long[metricNames.length];
+    }
+
+    /**
+     * add value to the counter
+     *
+     * @param index the counter index
+     * @param value the value to add
+     */
+    public void add(int index, long value) {
+        counters[index].add(value);
+    }
+
+    /**
+     * increment the counter
+     *
+     * @param index the counter index
+     */
+    public void increment(int index) {
+        counters[index].increment();
+    }
+
+    /**
+     * get the total value of the counter since the handle is created
+     *
+     * @param index the counter index
+     * @return the total value
+     */
+    public long get(int index) {
+        return counters[index].sum();
+    }
+
+    public Map<String, String> getDimensions() {
+        return dimensions;
+    }
+
+    public String getDimensionsKey() {
+        return dimensionsKey;
+    }
+
+    /**
+     * whether all counters are unchanged since the last drain
+     */
+    synchronized boolean isIdle() {
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i].sum() != drainedValues[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * drain the increments since the last drain to the metric item,
+     * the counters are never reset, so the concurrent increments are not lost
+     *
+     * @param item the metric item of the same dimensions
+     */
+    synchronized void drainTo(MetricItem item) {
+        for (int i = 0; i < counters.length; i++) {
+            long value = counters[i].sum();
+            long delta = value - drainedValues[i];
+            if (delta != 0) {
+                item.addMetricValue(metricNames[i], delta);
+                drainedValues[i] = value;
+            }
+        }
+    }
+}
@@ -131,6 +131,25 @@ public abstract class MetricItem implements MetricItemMBean {
         return metrics;
     }
 
+    /**
+     * add value to the count or gauge metric
+     *
+     * @param name the metric name
+     * @param value the value to add
+     */
+    public void addMetricValue(String name, long value) {
+        if (this.countMetrics == null || this.gaugeMetrics == null) {
+            this.initMetricField();
+        }
+        AtomicLong metricValue = this.countMetrics.get(name);
+        if (metricValue == null) {
+            metricValue = this.gaugeMetrics.get(name);
+        }
+        if (metricValue != null) {
+            metricValue.addAndGet(value);
+        }
+    }
+
     /**
      * initMetricField
      */
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * MetricItemSet
@@ -31,6 +32,8 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
 
     protected Map<String, T> itemMap = new ConcurrentHashMap<>();
 
+    protected Map<Object, MetricHandle> handleMap = new ConcurrentHashMap<>();
+
     /**
      * Constructor
      */
@@ -54,14 +57,43 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
      * findMetricItem
      */
     public T findMetricItem(Map<String, String> dimensions) {
-        String key = MetricUtils.getDimensionsKey(dimensions);
-        T currentItem = this.itemMap.get(key);
+        return findMetricItem(this.itemMap, MetricUtils.getDimensionsKey(dimensions), dimensions);
+    }
+
+    /**
+     * getHandleMetricNames
+     *
+     * @return the metric names of the handle counters, the index of the name is the counter index
+     */
+    protected String[] getHandleMetricNames() {
+        return new String[0];
+    }
+
+    /**
+     * findMetricHandle
+     *
+     * @param handleKey the key of the dimension tuple, must implement equals and hashCode
+     * @param dimensionsBuilder build the dimensions from the handle key, only called when the handle is created
+     * @return the metric handle
+     */
+    public <K> MetricHandle findMetricHandle(K handleKey, Function<K, Map<String, String>> dimensionsBuilder) {
+        MetricHandle handle = this.handleMap.get(handleKey);
+        if (handle != null) {
+            return handle;
+        }
+        handle = new MetricHandle(dimensionsBuilder.apply(handleKey), getHandleMetricNames());
+        MetricHandle oldHandle = this.handleMap.putIfAbsent(handleKey, handle);
+        return (oldHandle == null) ? handle : oldHandle;
+    }
+
+    private T findMetricItem(Map<String, T> items, String key, Map<String, String> dimensions) {
+        T currentItem = items.get(key);
         if (currentItem != null) {
             return currentItem;
         }
         currentItem = createItem();
         currentItem.setDimensions(dimensions);
-        T oldItem = this.itemMap.putIfAbsent(key, currentItem);
+        T oldItem = items.putIfAbsent(key, currentItem);
         return (oldItem == null) ? currentItem : oldItem;
     }
 
@@ -70,9 +102,21 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
      */
     @Override
     public List<MetricItem> snapshot() {
+        // remove the handles without update since the last snapshot
+        List<MetricHandle> handles = new ArrayList<>(handleMap.size());
+        handleMap.entrySet().removeIf(entry -> {
+            handles.add(entry.getValue());
+            return entry.getValue().isIdle();
+        });
         Map<String, T> oldItemMap = itemMap;
         this.itemMap = new ConcurrentHashMap<>();
         MetricUtils.sleepOneInterval();
+        // drain the handles, including the removed ones
+        for (MetricHandle handle : handles) {
+            if (!handle.isIdle()) {
+                handle.drainTo(findMetricItem(oldItemMap, handle.getDimensionsKey(), handle.getDimensions()));
+            }
+        }
         List<MetricItem> result = new ArrayList<>(oldItemMap.size());
         result.addAll(oldItemMap.values());
         return result;
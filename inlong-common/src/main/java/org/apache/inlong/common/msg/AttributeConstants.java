@@ -44,6 +44,9 @@ public interface AttributeConstants {
 
     /* compress type */
     String COMPRESS_TYPE = "cp";
+    String COMPRESS_TYPE_SNAPPY = "snappy";
+    String COMPRESS_TYPE_ZSTD = "zstd";
+    String COMPRESS_TYPE_LZ4 = "lz4";
 
     /* count value for how many records a message body contains */
     String MESSAGE_COUNT = "cnt";
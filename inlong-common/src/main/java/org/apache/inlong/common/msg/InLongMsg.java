@@ -17,6 +17,9 @@
 
 package org.apache.inlong.common.msg;
 
+import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.common.util.CompressUtils;
+
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import org.xerial.snappy.Snappy;
@@ -36,6 +39,10 @@ public class InLongMsg {
 
     private static final int BIN_MSG_NO_ZIP = 0;
     private static final int BIN_MSG_SNAPPY_TYPE = 1;
+    // compress flag of the attribute data
+    private static final int COMPRESS_FLAG_SNAPPY = 1;
+    private static final int COMPRESS_FLAG_ZSTD = 2;
+    private static final int COMPRESS_FLAG_LZ4 = 3;
 
     private static final int BIN_MSG_TOTALLEN_OFFSET = 0;
     private static final int BIN_MSG_GROUPID_OFFSET = 5;
@@ -45,6 +52,8 @@ public class InLongMsg {
     private static final int BIN_MSG_DATATIME_OFFSET = 11;
     private static final int BIN_MSG_TOTALLEN_SIZE = 4;
     private static final int BIN_MSG_MSGTYPE_OFFSET = 4;
+    // bit 6 of the zip type is the encrypt flag, so the zip type only tells whether the body is compressed,
+    // and the codec other than snappy is carried by the compress type attribute
     private static final int BIN_MSG_SET_SNAPPY = (1 << 5);
     private static final int BIN_MSG_BODYLEN_SIZE = 4;
     private static final int BIN_MSG_BODYLEN_OFFSET = 21;
@@ -96,6 +105,7 @@ public class InLongMsg {
     private int datalen = 0;
     private int msgcnt = 0;
     private boolean compress;
+    private InlongCompressType compressType = InlongCompressType.INLONG_SNAPPY;
     private boolean isNumGroupId = false;
     private boolean ischeck = true;
     private boolean isSupportLF = false;
@@ -205,6 +215,26 @@ public class InLongMsg {
         return new InLongMsg(capacity, compress, Version.of(v));
     }
 
+    /**
+     * netInLongMsg
+     * @param capacity     data capacity
+     * @param compressType compress type, NONE, INLONG_SNAPPY, INLONG_ZSTD or INLONG_LZ4
+     * @param v            version
+     * @return InLongMsg
+     */
+    public static InLongMsg newInLongMsg(int capacity, InlongCompressType compressType, int v) {
+        InLongMsg inLongMsg = new InLongMsg(capacity, compressType != InlongCompressType.NONE, Version.of(v));
+        if (inLongMsg.compress) {
+            if (compressType != InlongCompressType.INLONG_SNAPPY
+                    && compressType != InlongCompressType.INLONG_ZSTD
+                    && compressType != InlongCompressType.INLONG_LZ4) {
+                throw new IllegalArgumentException("Unsupported compress type: " + compressType);
+            }
+            inLongMsg.compressType = compressType;
+        }
+        return inLongMsg;
+    }
+
     // for create
     private InLongMsg(int capacity, boolean compress, Version v) {
         version = v;
@@ -397,13 +427,27 @@ public class InLongMsg {
                     if (version.intValue() == Version.v2.intValue()) {
                         out.writeInt(data.cnt);
                     }
-                    int guessLen =
-                            Snappy.maxCompressedLength(data.out.getLength());
-                    byte[] tmpData = new byte[guessLen];
-                    int len = Snappy.compress(data.out.getData(), 0,
-                            data.out.getLength(), tmpData, 0);
+                    byte[] tmpData;
+                    int len;
+                    int compressFlag;
+                    if (compressType == InlongCompressType.INLONG_ZSTD) {
+                        tmpData = CompressUtils.zstdCompress(null, data.out.getData(), 0, data.out.getLength());
+                        len = tmpData.length;
+                        compressFlag = COMPRESS_FLAG_ZSTD;
+                    } else if (compressType == InlongCompressType.INLONG_LZ4) {
+                        tmpData = CompressUtils.lz4Compress(data.out.getData(), 0, data.out.getLength());
+                        len = tmpData.length;
+                        compressFlag = COMPRESS_FLAG_LZ4;
+                    } else {
+                        int guessLen =
+                                Snappy.maxCompressedLength(data.out.getLength());
+                        tmpData = new byte[guessLen];
+                        len = Snappy.compress(data.out.getData(), 0,
+                                data.out.getLength(), tmpData, 0);
+                        compressFlag = COMPRESS_FLAG_SNAPPY;
+                    }
                     out.writeInt(len + 1);
-                    out.writeBoolean(compress);
+                    out.writeByte(compressFlag);
                     out.write(tmpData, 0, len);
                 }
             } else {
@@ -452,14 +496,26 @@ public class InLongMsg {
                         new byte[BIN_MSG_ATTRLEN_SIZE + attrLen + BIN_MSG_MAGIC_SIZE];
                 binMsgBuffer.get(attr, 0, attr.length);
 
-                int guessLen = Snappy.maxCompressedLength(bodyLen);
-                byte[] tmpData = new byte[guessLen];
-                int realLen = Snappy.compress(body, 0,
-                        body.length, tmpData, 0);
+                byte[] tmpData;
+                int realLen;
+                if (this.compressType == InlongCompressType.INLONG_ZSTD) {
+                    tmpData = CompressUtils.zstdCompress(null, body, 0, body.length);
+                    realLen = tmpData.length;
+                    attr = addBinMsgAttr(attr, AttributeConstants.COMPRESS_TYPE_ZSTD);
+                } else if (this.compressType == InlongCompressType.INLONG_LZ4) {
+                    tmpData = CompressUtils.lz4Compress(body, 0, body.length);
+                    realLen = tmpData.length;
+                    attr = addBinMsgAttr(attr, AttributeConstants.COMPRESS_TYPE_LZ4);
+                } else {
+                    int guessLen = Snappy.maxCompressedLength(bodyLen);
+                    tmpData = new byte[guessLen];
+                    realLen = Snappy.compress(body, 0,
+                            body.length, tmpData, 0);
+                }
+                attrLen = attr.length - BIN_MSG_ATTRLEN_SIZE - BIN_MSG_MAGIC_SIZE;
 
-                int totalDataLen = binMsgBuffer.getInt(BIN_MSG_TOTALLEN_OFFSET);
                 ByteBuffer dataBuf = ByteBuffer.allocate(
-                        totalDataLen + BIN_MSG_TOTALLEN_SIZE - body.length + realLen);
+                        realLen + attrLen + BIN_MSG_FORMAT_SIZE);
 
                 // copy headers
                 dataBuf.put(binMsgBuffer.array(), 0, BIN_MSG_BODYLEN_OFFSET);
@@ -684,12 +740,14 @@ public class InLongMsg {
             int compress = parsedInput.readByte();
             int pos = parsedInput.getPosition();
 
-            if (compress == 1) {
+            if (compress == COMPRESS_FLAG_SNAPPY) {
                 byte[] uncompressdata = new byte[Snappy.uncompressedLength(
                         parsedInput.getData(), pos, len - 1)];
                 int msgLen = Snappy.uncompress(parsedInput.getData(), pos, len - 1,
                         uncompressdata, 0);
                 bodyBuffer = ByteBuffer.wrap(uncompressdata, 0, msgLen);
+            } else if (compress == COMPRESS_FLAG_ZSTD || compress == COMPRESS_FLAG_LZ4) {
+                bodyBuffer = ByteBuffer.wrap(uncompressAttrData(compress, parsedInput.getData(), pos, len - 1));
             } else {
                 bodyBuffer = ByteBuffer.wrap(parsedInput.getData(), pos, len - 1);
             }
@@ -782,6 +840,18 @@ public class InLongMsg {
         int zipType = (msgtype & 0xE0) >> 5;
         switch (zipType) {
             case (BIN_MSG_SNAPPY_TYPE):
+                String binCompressType = commonAttrMap.remove(AttributeConstants.COMPRESS_TYPE);
+                if (AttributeConstants.COMPRESS_TYPE_ZSTD.equalsIgnoreCase(binCompressType)
+                        || AttributeConstants.COMPRESS_TYPE_LZ4.equalsIgnoreCase(binCompressType)) {
+                    byte[] unzipData = AttributeConstants.COMPRESS_TYPE_ZSTD.equalsIgnoreCase(binCompressType)
+                            ? CompressUtils.zstdDecompress(body, 1, body.length - 1)
+                            : CompressUtils.lz4Decompress(body, 1, body.length - 1);
+                    // uncompress flag
+                    byte[] flagData = new byte[unzipData.length + 1];
+                    System.arraycopy(unzipData, 0, flagData, 1, unzipData.length);
+                    bodyBuffer = ByteBuffer.wrap(flagData, 0, flagData.length);
+                    break;
+                }
                 byte[] uncompressdata =
                         new byte[Snappy.uncompressedLength(body, 1, body.length - 1) + 1];
                 // uncompress flag
@@ -978,6 +1048,38 @@ public class InLongMsg {
         return getIterator(this.attr2Rawdata.get(attr).buffer);
     }
 
+    /**
+     * add the compress type to the attributes of the binary message
+     *
+     * @param attr the attribute length, the attributes and the magic of the binary message
+     * @param compressType the compress type attribute value
+     * @return the attribute length, the attributes and the magic with the compress type
+     */
+    private static byte[] addBinMsgAttr(byte[] attr, String compressType) {
+        int attrLen = attr.length - BIN_MSG_ATTRLEN_SIZE - BIN_MSG_MAGIC_SIZE;
+        StringBuilder strAttr = new StringBuilder(attrLen + 16);
+        if (attrLen > 0) {
+            strAttr.append(new String(attr, BIN_MSG_ATTRLEN_SIZE, attrLen))
+                    .append(AttributeConstants.SEPARATOR);
+        }
+        strAttr.append(AttributeConstants.COMPRESS_TYPE)
+                .append(AttributeConstants.KEY_VALUE_SEPARATOR).append(compressType);
+        byte[] newAttr = strAttr.toString().getBytes();
+        ByteBuffer attrBuf = ByteBuffer.allocate(BIN_MSG_ATTRLEN_SIZE + newAttr.length + BIN_MSG_MAGIC_SIZE);
+        attrBuf.putShort((short) newAttr.length);
+        attrBuf.put(newAttr);
+        attrBuf.putShort((short) BIN_MSG_MAGIC);
+        return attrBuf.array();
+    }
+
+    private static byte[] uncompressAttrData(int compressFlag, byte[] data, int offset, int length)
+            throws IOException {
+        if (compressFlag == COMPRESS_FLAG_ZSTD) {
+            return CompressUtils.zstdDecompress(data, offset, length);
+        }
+        return CompressUtils.lz4Decompress(data, offset, length);
+    }
+
     public static Iterator<byte[]> getIterator(byte[] rawdata) {
         return getIterator(ByteBuffer.wrap(rawdata));
     }
@@ -995,12 +1097,15 @@ public class InLongMsg {
             int rem = rawdata.remaining() - 1;
             int compress = array[pos];
 
-            if (compress == 1) {
+            if (compress == COMPRESS_FLAG_SNAPPY) {
                 byte[] uncompressdata = new byte[Snappy.uncompressedLength(
                         array, pos + 1, rem)];
                 int len = Snappy.uncompress(array, pos + 1, rem,
                         uncompressdata, 0);
                 input.reset(uncompressdata, len);
+            } else if (compress == COMPRESS_FLAG_ZSTD || compress == COMPRESS_FLAG_LZ4) {
+                byte[] uncompressdata = uncompressAttrData(compress, array, pos + 1, rem);
+                input.reset(uncompressdata, uncompressdata.length);
             } else {
                 input.reset(array, pos + 1, rem);
             }
@@ -1062,12 +1167,15 @@ public class InLongMsg {
             int rem = rawdata.remaining() - 1;
             int compress = array[pos];
 
-            if (compress == 1) {
+            if (compress == COMPRESS_FLAG_SNAPPY) {
                 byte[] uncompressdata = new byte[Snappy.uncompressedLength(
                         array, pos + 1, rem)];
                 int len = Snappy.uncompress(array, pos + 1, rem,
                         uncompressdata, 0);
                 input.reset(uncompressdata, len);
+            } else if (compress == COMPRESS_FLAG_ZSTD || compress == COMPRESS_FLAG_LZ4) {
+                byte[] uncompressdata = uncompressAttrData(compress, array, pos + 1, rem);
+                input.reset(uncompressdata, uncompressdata.length);
             } else {
                 input.reset(array, pos + 1, rem);
             }
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.util;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * CompressUtils
+ *
+ * <p/>
+ * Compress and decompress the message body by the InlongCompressType.
+ * The zstd data is a zstd frame with the content size, compressed with the dictionary
+ * of the stream if bound in ZstdDictionaryHolder. The lz4 data is the original length
+ * in 4 bytes little endian followed by a lz4 block.
+ */
+public class CompressUtils {
+
+    public static final int DEF_ZSTD_LEVEL = 3;
+    private static final int LZ4_LENGTH_SIZE = 4;
+
+    private static final LZ4Compressor LZ4_COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor LZ4_DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private CompressUtils() {
+    }
+
+    /**
+     * compress data
+     *
+     * @param compressType the compress type
+     * @param data the data to compress
+     * @return the compressed data
+     * @throws IOException if the compress type is not supported or compress failure
+     */
+    public static byte[] compress(InlongCompressType compressType, byte[] data) throws IOException {
+        return compress(compressType, null, data);
+    }
+
+    /**
+     * compress data
+     *
+     * @param compressType the compress type
+     * @param streamKey the stream key to find the zstd dictionary, may be null
+     * @param data the data to compress
+     * @return the compressed data
+     * @throws IOException if the compress type is not supported or compress failure
+     */
+    public static byte[] compress(InlongCompressType compressType, String streamKey, byte[] data)
+            throws IOException {
+        switch (compressType) {
+            case NONE:
+                return data;
+            case INLONG_GZ:
+                return Utils.compressGZip(data);
+            case INLONG_SNAPPY:
+                return Snappy.compress(data);
+            case INLONG_ZSTD:
+                return zstdCompress(streamKey, data, 0, data.length);
+            case INLONG_LZ4:
+                return lz4Compress(data, 0, data.length);
+            default:
+                throw new IOException("Unsupported compress type: " + compressType);
+        }
+    }
+
+    /**
+     * decompress data
+     *
+     * @param compressType the compress type
+     * @param data the compressed data
+     * @param offset the offset of the compressed data
+     * @param length the length of the compressed data
+     * @return the decompressed data
+     * @throws IOException if the compress type is not supported or decompress failure
+     */
+    public static byte[] decompress(InlongCompressType compressType, byte[] data, int offset, int length)
+            throws IOException {
+        switch (compressType) {
+            case NONE:
+                return Arrays.copyOfRange(data, offset, offset + length);
+            case INLONG_GZ:
+                return Utils.gzipDecompress(data, offset, length);
+            case INLONG_SNAPPY:
+                return Utils.snappyDecompress(data, offset, length);
+            case INLONG_ZSTD:
+                return zstdDecompress(data, offset, length);
+            case INLONG_LZ4:
+                return lz4Decompress(data, offset, length);
+            default:
+                throw new IOException("Unsupported compress type: " + compressType);
+        }
+    }
+
+    /**
+     * zstd compress
+     *
+     * @param streamKey the stream key to find the dictionary, may be null
+     * @param data the data
+     * @param offset the offset of the data
+     * @param length the length of the data
+     * @return the zstd frame
+     * @throws IOException if compress failure
+     */
+    public static byte[] zstdCompress(String streamKey, byte[] data, int offset, int length) throws IOException {
+        byte[] dst = new byte[(int) Zstd.compressBound(length)];
+        ZstdDictCompress dict = ZstdDictionaryHolder.getCompressDict(streamKey);
+        long size;
+        if (dict == null) {
+            size = Zstd.compressByteArray(dst, 0, dst.length, data, offset, length, DEF_ZSTD_LEVEL);
+        } else {
+            size = Zstd.compressFastDict(dst, 0, data, offset, length, dict);
+        }
+        if (Zstd.isError(size)) {
+            throw new IOException("zstd compress failure: " + Zstd.getErrorName(size));
+        }
+        return Arrays.copyOf(dst, (int) size);
+    }
+
+    /**
+     * zstd decompress, the dictionary is found by the dictionary id of the frame
+     *
+     * @param data the data
+     * @param offset the offset of the zstd frame
+     * @param length the length of the zstd frame
+     * @return the decompressed data
+     * @throws IOException if decompress failure
+     */
+    public static byte[] zstdDecompress(byte[] data, int offset, int length) throws IOException {
+        byte[] src = (offset == 0 && length == data.length) ? data : Arrays.copyOfRange(data, offset, offset + length);
+        long originalSize = Zstd.decompressedSize(src);
+        if (originalSize < 0 || originalSize > Integer.MAX_VALUE) {
+            throw new IOException("zstd frame without valid content size: " + originalSize);
+        }
+        long dictId = Zstd.getDictIdFromFrame(src);
+        byte[] dst = new byte[(int) originalSize];
+        long size;
+        if (dictId == 0) {
+            size = Zstd.decompressByteArray(dst, 0, dst.length, src, 0, src.length);
+        } else {
+            ZstdDictDecompress dict = ZstdDictionaryHolder.getDecompressDict(dictId);
+            if (dict == null) {
+                throw new IOException("zstd dictionary " + dictId + " is not registered");
+            }
+            size = Zstd.decompressFastDict(dst, 0, src, 0, src.length, dict);
+        }
+        if (Zstd.isError(size)) {
+            throw new IOException("zstd decompress failure: " + Zstd.getErrorName(size));
+        }
+        if (size != originalSize) {
+            throw new IOException("zstd decompress size " + size + " != content size " + originalSize);
+        }
+        return dst;
+    }
+
+    /**
+     * lz4 compress
+     *
+     * @param data the data
+     * @param offset the offset of the data
+     * @param length the length of the data
+     * @return the original length and lz4 block
+     */
+    public static byte[] lz4Compress(byte[] data, int offset, int length) {
+        int maxLength = LZ4_COMPRESSOR.maxCompressedLength(length);
+        byte[] dst = new byte[LZ4_LENGTH_SIZE + maxLength];
+        dst[0] = (byte) length;
+        dst[1] = (byte) (length >>> 8);
+        dst[2] = (byte) (length >>> 16);
+        dst[3] = (byte) (length >>> 24);
+        int size = LZ4_COMPRESSOR.compress(data, offset, length, dst, LZ4_LENGTH_SIZE, maxLength);
+        return Arrays.copyOf(dst, LZ4_LENGTH_SIZE + size);
+    }
+
+    /**
+     * lz4 decompress
+     *
+     * @param data the data
+     * @param offset the offset of the original length
+     * @param length the length of the original length and lz4 block
+     * @return the decompressed data
+     * @throws IOException if decompress failure
+     */
+    public static byte[] lz4Decompress(byte[] data, int offset, int length) throws IOException {
+        if (length < LZ4_LENGTH_SIZE) {
+            throw new IOException("lz4 data length " + length + " is too short");
+        }
+        int originalSize = (data[offset] & 0xFF)
+                | ((data[offset + 1] & 0xFF) << 8)
+                | ((data[offset + 2] & 0xFF) << 16)
+                | ((data[offset + 3] & 0xFF) << 24);
+        if (originalSize < 0) {
+            throw new IOException("lz4 original length " + originalSize + " is invalid");
+        }
+        byte[] dst = new byte[originalSize];
+        try {
+            int size = LZ4_DECOMPRESSOR.decompress(data, offset + LZ4_LENGTH_SIZE,
+                    length - LZ4_LENGTH_SIZE, dst, 0, originalSize);
+            if (size != originalSize) {
+                throw new IOException("lz4 decompress size " + size + " != original length " + originalSize);
+            }
+        } catch (LZ4Exception e) {
+            throw new IOException("lz4 decompress failure", e);
+        }
+        return dst;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.util;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ZstdDictionaryHolder
+ *
+ * <p/>
+ * Holds the zstd dictionaries of the streams. The compressor uses the dictionary bound to the stream,
+ * the decompressor finds the dictionary by the dictionary id in the zstd frame header, so the dictionary
+ * must be registered on both sides, for example by loading the same dictionary files.
+ */
+public class ZstdDictionaryHolder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ZstdDictionaryHolder.class);
+
+    // suffix of the dictionary file, the file name without suffix is the stream key
+    public static final String DICT_FILE_SUFFIX = ".dict";
+
+    // dictionaries to decompress, key is the dictionary id
+    private static final ConcurrentHashMap<Long, ZstdDictDecompress> DECOMPRESS_DICTS = new ConcurrentHashMap<>();
+    // dictionaries to compress, key is the stream key
+    private static final ConcurrentHashMap<String, ZstdDictCompress> STREAM_COMPRESS_DICTS =
+            new ConcurrentHashMap<>();
+    // raw dictionaries, key is the stream key
+    private static final ConcurrentHashMap<String, byte[]> STREAM_DICTS = new ConcurrentHashMap<>();
+    // dictionary trainers, key is the stream key
+    private static final ConcurrentHashMap<String, ZstdDictTrainer> STREAM_TRAINERS = new ConcurrentHashMap<>();
+
+    private ZstdDictionaryHolder() {
+    }
+
+    /**
+     * register a dictionary for decompression
+     *
+     * @param dict the dictionary
+     * @return the dictionary id
+     */
+    public static long register(byte[] dict) {
+        long dictId = Zstd.getDictIdFromDict(dict);
+        if (dictId == 0) {
+            throw new IllegalArgumentException("not a zstd dictionary");
+        }
+        DECOMPRESS_DICTS.computeIfAbsent(dictId, k -> new ZstdDictDecompress(dict));
+        return dictId;
+    }
+
+    /**
+     * bind a dictionary to the stream, the data of the stream is compressed with it
+     *
+     * @param streamKey the stream key, such as the uid of groupId and streamId
+     * @param dict the dictionary
+     * @return the dictionary id
+     */
+    public static long bindStream(String streamKey, byte[] dict) {
+        long dictId = register(dict);
+        STREAM_DICTS.put(streamKey, dict);
+        STREAM_COMPRESS_DICTS.put(streamKey, new ZstdDictCompress(dict, CompressUtils.DEF_ZSTD_LEVEL));
+        return dictId;
+    }
+
+    /**
+     * unbind the dictionary of the stream, the dictionary is kept for decompression
+     *
+     * @param streamKey the stream key
+     */
+    public static void unbindStream(String streamKey) {
+        STREAM_DICTS.remove(streamKey);
+        STREAM_COMPRESS_DICTS.remove(streamKey);
+    }
+
+    /**
+     * get the compress dictionary of the stream
+     *
+     * @param streamKey the stream key
+     * @return the dictionary, null if not bound
+     */
+    public static ZstdDictCompress getCompressDict(String streamKey) {
+        if (streamKey == null || STREAM_COMPRESS_DICTS.isEmpty()) {
+            return null;
+        }
+        return STREAM_COMPRESS_DICTS.get(streamKey);
+    }
+
+    /**
+     * get the raw dictionary of the stream, to distribute it to the decompressor
+     *
+     * @param streamKey the stream key
+     * @return the dictionary, null if not bound
+     */
+    public static byte[] getStreamDict(String streamKey) {
+        return STREAM_DICTS.get(streamKey);
+    }
+
+    /**
+     * get the decompress dictionary
+     *
+     * @param dictId the dictionary id in the zstd frame
+     * @return the dictionary, null if not registered
+     */
+    public static ZstdDictDecompress getDecompressDict(long dictId) {
+        return DECOMPRESS_DICTS.get(dictId);
+    }
+
+    /**
+     * train a dictionary from the samples
+     *
+     * @param samples the sample data
+     * @param dictSize the max dictionary size
+     * @return the dictionary
+     */
+    public static byte[] train(List<byte[]> samples, int dictSize) {
+        int sampleSize = 0;
+        for (byte[] sample : samples) {
+            sampleSize += sample.length;
+        }
+        ZstdDictTrainer trainer = new ZstdDictTrainer(sampleSize, dictSize);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+        return trainer.trainSamples();
+    }
+
+    /**
+     * add a training sample of the stream, the dictionary is trained and bound to the stream
+     * when the sample buffer is full.
+     *
+     * @param streamKey the stream key
+     * @param sample the sample data
+     * @param sampleBufferSize the total sample size to train
+     * @param dictSize the max dictionary size
+     * @return true if the dictionary of the stream is trained by this sample
+     */
+    public static boolean addTrainingSample(String streamKey, byte[] sample, int sampleBufferSize, int dictSize) {
+        if (STREAM_DICTS.containsKey(streamKey)) {
+            return false;
+        }
+        ZstdDictTrainer trainer = STREAM_TRAINERS.computeIfAbsent(streamKey,
+                k -> new ZstdDictTrainer(sampleBufferSize, dictSize));
+        if (trainer.addSample(sample)) {
+            return false;
+        }
+        // sample buffer is full
+        if (STREAM_TRAINERS.remove(streamKey, trainer)) {
+            try {
+                byte[] dict = trainer.trainSamples();
+                long dictId = bindStream(streamKey, dict);
+                LOG.info("trained zstd dictionary {} of stream {}, size {}", dictId, streamKey, dict.length);
+                return true;
+            } catch (Throwable e) {
+                LOG.warn("failed to train zstd dictionary of stream {}", streamKey, e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * load the dictionary files of the directory, the file name without suffix is the stream key
+     *
+     * @param dictDir the directory
+     * @return the loaded dictionary count
+     * @throws IOException if read file failure
+     */
+    public static int loadFromDirectory(File dictDir) throws IOException {
+        File[] dictFiles = dictDir.listFiles((dir, name) -> name.endsWith(DICT_FILE_SUFFIX));
+        if (dictFiles == null) {
+            return 0;
+        }
+        for (File dictFile : dictFiles) {
+            String name = dictFile.getName();
+            String streamKey = name.substring(0, name.length() - DICT_FILE_SUFFIX.length());
+            long dictId = bindStream(streamKey, Files.readAllBytes(dictFile.toPath()));
+            LOG.info("loaded zstd dictionary {} of stream {} from {}", dictId, streamKey, dictFile);
+        }
+        return dictFiles.length;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.metric.set;
+
+import org.apache.inlong.common.metric.MetricHandle;
+import org.apache.inlong.common.metric.MetricItem;
+import org.apache.inlong.common.metric.MetricItemSet;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 
+ * TestMetricHandle
+ */
+public class TestMetricHandle {
+
+    private static final int IDX_SEND_COUNT = 0;
+    private static final int IDX_SEND_SIZE = 1;
+
+    /**
+     * HandleMetricItemSet
+     */
+    private static class HandleMetricItemSet extends MetricItemSet<DataProxyMetricItem> {
+
+        HandleMetricItemSet() {
+            super("DataProxyHandle");
+        }
+
+        @Override
+        protected DataProxyMetricItem createItem() {
+            return new DataProxyMetricItem();
+        }
+
+        @Override
+        protected String[] getHandleMetricNames() {
+            return new String[]{"sendCount", "sendSize"};
+        }
+
+        MetricHandle findMetricHandle(String groupId) {
+            return findMetricHandle(groupId, key -> {
+                Map<String, String> dimensions = new HashMap<>();
+                dimensions.put("inlongGroupId", key);
+                return dimensions;
+            });
+        }
+    }
+
+    @Test
+    public void testSnapshotDrainsHandle() {
+        HandleMetricItemSet itemSet = new HandleMetricItemSet();
+        MetricHandle handle = itemSet.findMetricHandle("group1");
+        assertSame(handle, itemSet.findMetricHandle("group1"));
+        handle.increment(IDX_SEND_COUNT);
+        handle.add(IDX_SEND_SIZE, 100);
+        // the handle and the item with the same dimensions are merged
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put("inlongGroupId", "group1");
+        itemSet.findMetricItem(dimensions).sendCount.incrementAndGet();
+        List<MetricItem> items = itemSet.snapshot();
+        assertEquals(1, items.size());
+        DataProxyMetricItem item = (DataProxyMetricItem) items.get(0);
+        assertEquals("group1", item.getDimensions().get("inlongGroupId"));
+        assertEquals(2, item.sendCount.get());
+        assertEquals(100, item.sendSize.get());
+        // only the increments since the last snapshot are exported
+        handle.add(IDX_SEND_SIZE, 20);
+        items = itemSet.snapshot();
+        assertEquals(1, items.size());
+        item = (DataProxyMetricItem) items.get(0);
+        assertEquals(0, item.sendCount.get());
+        assertEquals(20, item.sendSize.get());
+    }
+
+    @Test
+    public void testIdleHandleRemoved() {
+        HandleMetricItemSet itemSet = new HandleMetricItemSet();
+        MetricHandle handle = itemSet.findMetricHandle("group1");
+        handle.increment(IDX_SEND_COUNT);
+        assertEquals(1, itemSet.snapshot().size());
+        // no update since the last snapshot, the handle is removed and nothing is exported
+        assertTrue(itemSet.snapshot().isEmpty());
+        assertNotSame(handle, itemSet.findMetricHandle("group1"));
+    }
+
+    @Test
+    public void testConcurrentIncrementNotLost() throws Exception {
+        HandleMetricItemSet itemSet = new HandleMetricItemSet();
+        int threadNum = 4;
+        int loopNum = 200000;
+        AtomicBoolean finished = new AtomicBoolean(false);
+        CountDownLatch latch = new CountDownLatch(threadNum);
+        for (int i = 0; i < threadNum; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < loopNum; j++) {
+                    itemSet.findMetricHandle("group" + (j % 3)).increment(IDX_SEND_COUNT);
+                }
+                latch.countDown();
+            }).start();
+        }
+        long total = 0;
+        while (!finished.get()) {
+            finished.set(latch.getCount() == 0);
+            for (MetricItem item : itemSet.snapshot()) {
+                total += ((DataProxyMetricItem) item).sendCount.get();
+            }
+        }
+        assertEquals((long) threadNum * loopNum, total);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * InLongMsg unit test of the binary messages
+ */
+public class InLongMsgTest {
+
+    private static final int BIN_MSG_TYPE = 7;
+    private static final int FLAG_ALLOW_ENCRYPT = 1 << 6;
+    private static final int FLAG_ALLOW_COMPRESS = 1 << 5;
+    // group id and stream id are carried by the attributes
+    private static final int EXT_FIELD_DISABLE_ID2NUM = 1 << 2;
+
+    private static byte[] buildBody() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            builder.append("{\"id\":").append(i).append(",\"city\":\"shenzhen\",\"status\":\"active\"}\n");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * build the binary message as the sdk does
+     */
+    private static byte[] buildBinMsg(int msgType, byte[] body, String attr) {
+        byte[] attrBytes = attr.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(29 + body.length + attrBytes.length);
+        buffer.putInt(buffer.capacity() - 4);
+        buffer.put((byte) msgType);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) EXT_FIELD_DISABLE_ID2NUM);
+        buffer.putInt((int) (System.currentTimeMillis() / 1000));
+        buffer.putShort((short) 1);
+        buffer.putInt(1);
+        buffer.putInt(body.length);
+        buffer.put(body);
+        buffer.putShort((short) attrBytes.length);
+        buffer.put(attrBytes);
+        buffer.putShort((short) 0xEE01);
+        return buffer.array();
+    }
+
+    private static String getOnlyAttr(InLongMsg parsed) {
+        Set<String> attrs = parsed.getAttrs();
+        Assert.assertEquals(1, attrs.size());
+        return attrs.iterator().next();
+    }
+
+    @Test
+    public void testParseEncryptedBinMsg() {
+        // the body of the encrypted message is passed through as is, whatever the compress flag is
+        byte[] encryptedBody = new byte[200];
+        for (int i = 0; i < encryptedBody.length; i++) {
+            encryptedBody[i] = (byte) (i * 31 + 7);
+        }
+        for (int msgType : new int[]{BIN_MSG_TYPE | FLAG_ALLOW_ENCRYPT,
+                BIN_MSG_TYPE | FLAG_ALLOW_ENCRYPT | FLAG_ALLOW_COMPRESS}) {
+            InLongMsg inLongMsg = InLongMsg.newInLongMsg(true, 4);
+            Assert.assertTrue(inLongMsg.addMsg(buildBinMsg(msgType, encryptedBody,
+                    "groupId=test_group&streamId=test_stream&_encyVersion=1")));
+            InLongMsg parsed = InLongMsg.parseFrom(inLongMsg.buildArray());
+            String attr = getOnlyAttr(parsed);
+            Assert.assertTrue(attr, attr.contains("_encyVersion=1"));
+            byte[] rawData = parsed.getRawData(attr);
+            // the uncompress flag and the body
+            Assert.assertEquals(0, rawData[0]);
+            Assert.assertArrayEquals(encryptedBody, Arrays.copyOfRange(rawData, 1, rawData.length));
+        }
+    }
+
+    @Test
+    public void testBinMsgCompressType() {
+        byte[] body = buildBody();
+        for (InlongCompressType compressType : new InlongCompressType[]{InlongCompressType.NONE,
+                InlongCompressType.INLONG_SNAPPY, InlongCompressType.INLONG_ZSTD, InlongCompressType.INLONG_LZ4}) {
+            InLongMsg inLongMsg = InLongMsg.newInLongMsg(4096, compressType, 4);
+            Assert.assertTrue(inLongMsg.addMsg(buildBinMsg(BIN_MSG_TYPE, body,
+                    "groupId=test_group&streamId=test_stream")));
+            byte[] data = inLongMsg.buildArray();
+            // the zip type only tells whether the body is compressed, the encrypt flag is not touched
+            int msgType = data[2 + 4];
+            Assert.assertEquals(compressType.getName(), compressType == InlongCompressType.NONE ? 0 : 1,
+                    (msgType & 0xE0) >> 5);
+            InLongMsg parsed = InLongMsg.parseFrom(data);
+            String attr = getOnlyAttr(parsed);
+            Assert.assertFalse(attr, attr.contains(AttributeConstants.COMPRESS_TYPE + "="));
+            Assert.assertTrue(attr, attr.contains("groupId=test_group"));
+            byte[] rawData = parsed.getRawData(attr);
+            Assert.assertEquals(0, rawData[0]);
+            Assert.assertArrayEquals(compressType.getName(), body, Arrays.copyOfRange(rawData, 1, rawData.length));
+        }
+    }
+}
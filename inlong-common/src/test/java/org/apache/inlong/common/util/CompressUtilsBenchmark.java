@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.util;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the compress types on log-like payloads, the compression ratio
+ * is printed in the setup, "zstdDict" compresses with a dictionary trained on the same kind of records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressUtilsBenchmark {
+
+    private static final String DICT_STREAM_KEY = "bench_group.bench_stream";
+
+    @Param({"INLONG_SNAPPY", "INLONG_GZ", "INLONG_ZSTD", "INLONG_LZ4", "zstdDict"})
+    private String compressType;
+
+    @Param({"1024", "65536"})
+    private int payloadSize;
+
+    private InlongCompressType inlongCompressType;
+    private String streamKey;
+    private byte[] payload;
+    private byte[] compressed;
+
+    /**
+     * build a payload of log-like text records
+     */
+    static byte[] buildPayload(Random random, int size) {
+        StringBuilder builder = new StringBuilder(size + 256);
+        while (builder.length() < size) {
+            builder.append("ts=").append(1700000000000L + random.nextInt(100000))
+                    .append("|ip=10.0.").append(random.nextInt(16)).append('.').append(random.nextInt(256))
+                    .append("|uid=").append(random.nextInt(1000000))
+                    .append("|event=").append(random.nextBoolean() ? "click" : "expose")
+                    .append("|page=/item/detail?id=").append(random.nextInt(5000))
+                    .append("|cost=").append(random.nextInt(500)).append('\n');
+        }
+        return builder.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(1);
+        if ("zstdDict".equals(compressType)) {
+            List<byte[]> samples = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                samples.add(buildPayload(random, 1024));
+            }
+            ZstdDictionaryHolder.bindStream(DICT_STREAM_KEY, ZstdDictionaryHolder.train(samples, 16 * 1024));
+            this.inlongCompressType = InlongCompressType.INLONG_ZSTD;
+            this.streamKey = DICT_STREAM_KEY;
+        } else {
+            this.inlongCompressType = InlongCompressType.valueOf(compressType);
+        }
+        this.payload = buildPayload(random, payloadSize);
+        this.compressed = CompressUtils.compress(inlongCompressType, streamKey, payload);
+        System.out.printf("%n%s payloadSize=%d compressedSize=%d ratio=%.2f%n", compressType,
+                payload.length, compressed.length, (double) payload.length / compressed.length);
+    }
+
+    @Benchmark
+    public byte[] compress() throws Exception {
+        return CompressUtils.compress(inlongCompressType, streamKey, payload);
+    }
+
+    @Benchmark
+    public byte[] decompress() throws Exception {
+        return CompressUtils.decompress(inlongCompressType, compressed, 0, compressed.length);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(CompressUtilsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.util;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.common.msg.InLongMsg;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * CompressUtils unit test
+ */
+public class CompressUtilsTest {
+
+    private static byte[] buildPayload(int seed) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            builder.append("{\"id\":").append(seed * 100 + i)
+                    .append(",\"name\":\"user").append(i % 7)
+                    .append("\",\"city\":\"shenzhen\",\"status\":\"active\"}\n");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCompressAndDecompress() throws IOException {
+        byte[] data = buildPayload(1);
+        for (InlongCompressType compressType : new InlongCompressType[]{InlongCompressType.NONE,
+                InlongCompressType.INLONG_GZ, InlongCompressType.INLONG_SNAPPY,
+                InlongCompressType.INLONG_ZSTD, InlongCompressType.INLONG_LZ4}) {
+            byte[] compressed = CompressUtils.compress(compressType, data);
+            // decompress a slice of a larger array
+            byte[] wrapped = new byte[compressed.length + 3];
+            System.arraycopy(compressed, 0, wrapped, 2, compressed.length);
+            Assert.assertArrayEquals(compressType.getName(), data,
+                    CompressUtils.decompress(compressType, wrapped, 2, compressed.length));
+        }
+    }
+
+    @Test
+    public void testZstdStreamDictionary() throws IOException {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            samples.add(buildPayload(i));
+        }
+        byte[] dict = ZstdDictionaryHolder.train(samples, 4096);
+        long dictId = ZstdDictionaryHolder.bindStream("test_group.test_stream", dict);
+        Assert.assertNotEquals(0, dictId);
+        byte[] data = buildPayload(1000);
+        byte[] withDict = CompressUtils.compress(InlongCompressType.INLONG_ZSTD, "test_group.test_stream", data);
+        byte[] withoutDict = CompressUtils.compress(InlongCompressType.INLONG_ZSTD, "other_stream", data);
+        Assert.assertTrue(withDict.length < withoutDict.length);
+        // the dictionary is found by the id in the frame
+        Assert.assertArrayEquals(data, CompressUtils.zstdDecompress(withDict, 0, withDict.length));
+        Assert.assertArrayEquals(data, CompressUtils.zstdDecompress(withoutDict, 0, withoutDict.length));
+        ZstdDictionaryHolder.unbindStream("test_group.test_stream");
+        Assert.assertNull(ZstdDictionaryHolder.getCompressDict("test_group.test_stream"));
+    }
+
+    @Test
+    public void testInLongMsgCompressType() {
+        for (InlongCompressType compressType : new InlongCompressType[]{InlongCompressType.NONE,
+                InlongCompressType.INLONG_SNAPPY, InlongCompressType.INLONG_ZSTD, InlongCompressType.INLONG_LZ4}) {
+            InLongMsg inLongMsg = InLongMsg.newInLongMsg(4096, compressType, 1);
+            inLongMsg.addMsg("m=0&iname=test", buildPayload(1));
+            inLongMsg.addMsg("m=0&iname=test", buildPayload(2));
+            InLongMsg parsed = InLongMsg.parseFrom(inLongMsg.buildArray());
+            Iterator<byte[]> iterator = parsed.getIterator("m=0&iname=test");
+            Assert.assertArrayEquals(compressType.getName(), buildPayload(1), iterator.next());
+            Assert.assertArrayEquals(compressType.getName(), buildPayload(2), iterator.next());
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+}
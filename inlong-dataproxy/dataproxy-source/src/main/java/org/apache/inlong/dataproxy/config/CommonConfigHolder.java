@@ -18,6 +18,7 @@
 package org.apache.inlong.dataproxy.config;
 
 import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.common.util.ZstdDictionaryHolder;
 import org.apache.inlong.dataproxy.sink.common.DefaultEventHandler;
 import org.apache.inlong.dataproxy.sink.mq.AllCacheClusterSelector;
 import org.apache.inlong.dataproxy.utils.AddressUtils;
@@ -29,6 +30,7 @@ import org.apache.flume.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -148,11 +150,18 @@ public class CommonConfigHolder {
     private static final String KEY_V1MSG_RESPONSE_BY_SINK = "isResponseAfterSave";
     private static final String KEY_V1MSG_RESPONSE_BY_SINKV2 = "proxy.v1msg.response.by.sink.enable";
     private static final boolean VAL_DEF_V1MSG_RESPONSE_BY_SINK = false;
+    // max pending v1 msg responses per connection when response by sink,
+    // the connection stops reading until the pending count drops to half of it
+    private static final String KEY_V1MSG_MAX_PENDING_RESPONSES = "proxy.v1msg.max.pending.responses";
+    private static final int VAL_DEF_V1MSG_MAX_PENDING_RESPONSES = 1000;
+    private static final int VAL_MIN_V1MSG_MAX_PENDING_RESPONSES = 2;
     // v1 msg sent compress type
     @Deprecated
     private static final String KEY_V1MSG_SENT_COMPRESS_TYPE = "compressType";
     private static final String KEY_V1MSG_SENT_COMPRESS_TYPEV2 = "proxy.v1msg.compress.type";
     private static final InlongCompressType VAL_DEF_V1MSG_COMPRESS_TYPE = InlongCompressType.INLONG_SNAPPY;
+    // directory of the zstd dictionary files, named as {groupId}.{streamId}.dict
+    private static final String KEY_ZSTD_DICT_DIR = "proxy.zstd.dict.dir";
     // Same as KEY_MAX_RESPONSE_TIMEOUT_MS = "maxResponseTimeoutMs";
     private static final String KEY_MAX_RAS_TIMEOUT_MS = "maxRASTimeoutMs";
     private static final long VAL_DEF_MAX_RAS_TIMEOUT_MS = 10000L;
@@ -225,8 +234,10 @@ public class CommonConfigHolder {
     private String fileMetricSinkOutName = VAL_DEF_FILE_METRIC_SINK_OUTPUT_NAME;
     private String fileMetricEventOutName = VAL_DEF_FILE_METRIC_EVENT_OUTPUT_NAME;
     private InlongCompressType defV1MsgCompressType = VAL_DEF_V1MSG_COMPRESS_TYPE;
+    private String zstdDictDir = null;
     private boolean defV1MsgResponseBySink = VAL_DEF_V1MSG_RESPONSE_BY_SINK;
     private long maxResAfterSaveTimeout = VAL_DEF_MAX_RAS_TIMEOUT_MS;
+    private int maxV1MsgPendingResponses = VAL_DEF_V1MSG_MAX_PENDING_RESPONSES;
     private boolean enableWhiteList = VAL_DEF_ENABLE_WHITELIST;
     private int defBufferQueueSizeKB = VAL_DEF_BUFFERQUEUE_SIZE_KB;
     private String eventHandler = VAL_DEF_EVENT_HANDLER;
@@ -380,6 +391,10 @@ public class CommonConfigHolder {
         return maxResAfterSaveTimeout;
     }
 
+    public int getMaxV1MsgPendingResponses() {
+        return maxV1MsgPendingResponses;
+    }
+
     public int getDefBufferQueueSizeKB() {
         return defBufferQueueSizeKB;
     }
@@ -408,6 +423,10 @@ public class CommonConfigHolder {
         return defV1MsgCompressType;
     }
 
+    public String getZstdDictDir() {
+        return zstdDictDir;
+    }
+
     public String getFileMetricSourceOutName() {
         return fileMetricSourceOutName;
     }
@@ -719,6 +738,12 @@ public class CommonConfigHolder {
         if (StringUtils.isNotEmpty(tmpValue)) {
             this.defV1MsgResponseBySink = "TRUE".equalsIgnoreCase(tmpValue.trim());
         }
+        // read max pending v1 msg responses per connection
+        tmpValue = this.props.get(KEY_V1MSG_MAX_PENDING_RESPONSES);
+        if (StringUtils.isNotEmpty(tmpValue)) {
+            this.maxV1MsgPendingResponses = Math.max(VAL_MIN_V1MSG_MAX_PENDING_RESPONSES,
+                    NumberUtils.toInt(tmpValue.trim(), VAL_DEF_V1MSG_MAX_PENDING_RESPONSES));
+        }
         // read v1 msg compress type
         tmpValue = compatGetValue(this.props,
                 KEY_V1MSG_SENT_COMPRESS_TYPEV2, KEY_V1MSG_SENT_COMPRESS_TYPE);
@@ -731,6 +756,17 @@ public class CommonConfigHolder {
             }
             this.defV1MsgCompressType = tmpCompType;
         }
+        // read and load zstd dictionaries
+        tmpValue = this.props.get(KEY_ZSTD_DICT_DIR);
+        if (StringUtils.isNotBlank(tmpValue)) {
+            this.zstdDictDir = tmpValue.trim();
+            try {
+                int dictCnt = ZstdDictionaryHolder.loadFromDirectory(new File(this.zstdDictDir));
+                LOG.info("Loaded {} zstd dictionaries from {}", dictCnt, this.zstdDictDir);
+            } catch (IOException e) {
+                LOG.error("Fail to load zstd dictionaries from {}", this.zstdDictDir, e);
+            }
+        }
     }
 
     private boolean loadConfigFile() {
@@ -810,8 +846,10 @@ public class CommonConfigHolder {
                 .append("fileMetricSinkOutName", fileMetricSinkOutName)
                 .append("fileMetricEventOutName", fileMetricEventOutName)
                 .append("defV1MsgCompressType", defV1MsgCompressType)
+                .append("zstdDictDir", zstdDictDir)
                 .append("defV1MsgResponseBySink", defV1MsgResponseBySink)
                 .append("maxResAfterSaveTimeout", maxResAfterSaveTimeout)
+                .append("maxV1MsgPendingResponses", maxV1MsgPendingResponses)
                 .append("enableWhiteList", enableWhiteList)
                 .append("defBufferQueueSizeKB", defBufferQueueSizeKB)
                 .append("eventHandler", eventHandler)
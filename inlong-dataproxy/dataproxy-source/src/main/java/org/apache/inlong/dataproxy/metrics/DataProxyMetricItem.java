@@ -144,9 +144,12 @@ public class DataProxyMetricItem extends MetricItem {
      * @param dimensions
      */
     public static void fillAuditFormatTime(Event event, Map<String, String> dimensions) {
+        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(getAuditFormatTime(event)));
+    }
+
+    public static long getAuditFormatTime(Event event) {
         long msgTime = (event != null) ? AuditUtils.getLogTime(event) : System.currentTimeMillis();
-        long auditFormatTime = msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
+        return msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
     }
 
     /**
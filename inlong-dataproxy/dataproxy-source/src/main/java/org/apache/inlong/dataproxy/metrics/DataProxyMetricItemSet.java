@@ -18,16 +18,19 @@
 package org.apache.inlong.dataproxy.metrics;
 
 import org.apache.inlong.common.metric.MetricDomain;
+import org.apache.inlong.common.metric.MetricHandle;
 import org.apache.inlong.common.metric.MetricItemSet;
 import org.apache.inlong.common.msg.AttributeConstants;
 import org.apache.inlong.dataproxy.config.CommonConfigHolder;
 import org.apache.inlong.dataproxy.consts.ConfigConstants;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.flume.Event;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * 
@@ -36,6 +39,32 @@ import java.util.Map;
 @MetricDomain(name = "DataProxy")
 public class DataProxyMetricItemSet extends MetricItemSet<DataProxyMetricItem> {
 
+    // counter index of the metric handle
+    public static final int IDX_READ_SUCCESS_COUNT = 0;
+    public static final int IDX_READ_SUCCESS_SIZE = 1;
+    public static final int IDX_READ_FAIL_COUNT = 2;
+    public static final int IDX_READ_FAIL_SIZE = 3;
+    public static final int IDX_SEND_COUNT = 4;
+    public static final int IDX_SEND_SIZE = 5;
+    public static final int IDX_SEND_SUCCESS_COUNT = 6;
+    public static final int IDX_SEND_SUCCESS_SIZE = 7;
+    public static final int IDX_SEND_FAIL_COUNT = 8;
+    public static final int IDX_SEND_FAIL_SIZE = 9;
+    public static final int IDX_SINK_DURATION = 10;
+    public static final int IDX_NODE_DURATION = 11;
+    public static final int IDX_WHOLE_DURATION = 12;
+    public static final int IDX_SEND_PACK_COUNT = 13;
+    public static final int IDX_SEND_PACK_SIZE = 14;
+    private static final String[] HANDLE_METRIC_NAMES = {
+            DataProxyMetricItem.M_READ_SUCCESS_COUNT, DataProxyMetricItem.M_READ_SUCCESS_SIZE,
+            DataProxyMetricItem.M_READ_FAIL_COUNT, DataProxyMetricItem.M_READ_FAIL_SIZE,
+            DataProxyMetricItem.M_SEND_COUNT, DataProxyMetricItem.M_SEND_SIZE,
+            DataProxyMetricItem.M_SEND_SUCCESS_COUNT, DataProxyMetricItem.M_SEND_SUCCESS_SIZE,
+            DataProxyMetricItem.M_SEND_FAIL_COUNT, DataProxyMetricItem.M_SEND_FAIL_SIZE,
+            DataProxyMetricItem.M_SINK_DURATION, DataProxyMetricItem.M_NODE_DURATION,
+            DataProxyMetricItem.M_WHOLE_DURATION, DataProxyMetricItem.M_SEND_PACK_COUNT,
+            DataProxyMetricItem.M_SEND_PACK_SIZE};
+
     private String clusterId = null;
     private String sourceDataId = null;
 
@@ -108,59 +137,82 @@ public class DataProxyMetricItemSet extends MetricItemSet<DataProxyMetricItem> {
     private void fillMetricItemsByEvent(Event event, boolean isSource,
             boolean isReadOp, boolean isSuccess,
             long size, long sendTime) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, clusterId);
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_GROUP_ID,
-                event.getHeaders().get(AttributeConstants.GROUP_ID));
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_STREAM_ID,
-                event.getHeaders().get(AttributeConstants.STREAM_ID));
         long dataTime = NumberUtils.toLong(
                 event.getHeaders().get(AttributeConstants.DATA_TIME));
         long msgCount = NumberUtils.toLong(
                 event.getHeaders().get(ConfigConstants.MSG_COUNTER_KEY));
         long auditFormatTime =
                 dataTime - dataTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
+        MetricHandle handle;
         if (isSource) {
-            dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, name);
-            dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, sourceDataId);
+            handle = findMetricHandle(StringUtils.defaultString(clusterId),
+                    StringUtils.defaultString(name), StringUtils.defaultString(sourceDataId),
+                    StringUtils.defaultString(event.getHeaders().get(AttributeConstants.GROUP_ID)),
+                    StringUtils.defaultString(event.getHeaders().get(AttributeConstants.STREAM_ID)),
+                    null, null, auditFormatTime);
         } else {
-            dimensions.put(DataProxyMetricItem.KEY_SINK_ID, name);
-            dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID,
-                    event.getHeaders().get(ConfigConstants.TOPIC_KEY));
+            handle = findMetricHandle(StringUtils.defaultString(clusterId), null, null,
+                    StringUtils.defaultString(event.getHeaders().get(AttributeConstants.GROUP_ID)),
+                    StringUtils.defaultString(event.getHeaders().get(AttributeConstants.STREAM_ID)),
+                    StringUtils.defaultString(name),
+                    StringUtils.defaultString(event.getHeaders().get(ConfigConstants.TOPIC_KEY)), auditFormatTime);
         }
-        DataProxyMetricItem metricItem = findMetricItem(dimensions);
         if (isReadOp) {
             if (isSuccess) {
-                metricItem.readSuccessCount.addAndGet(msgCount);
-                metricItem.readSuccessSize.addAndGet(size);
+                handle.add(IDX_READ_SUCCESS_COUNT, msgCount);
+                handle.add(IDX_READ_SUCCESS_SIZE, size);
             } else {
-                metricItem.readFailCount.addAndGet(msgCount);
-                metricItem.readFailSize.addAndGet(size);
+                handle.add(IDX_READ_FAIL_COUNT, msgCount);
+                handle.add(IDX_READ_FAIL_SIZE, size);
             }
         } else {
             if (isSuccess) {
-                metricItem.sendSuccessCount.addAndGet(msgCount);
-                metricItem.sendSuccessSize.addAndGet(size);
+                handle.add(IDX_SEND_SUCCESS_COUNT, msgCount);
+                handle.add(IDX_SEND_SUCCESS_SIZE, size);
                 if (sendTime > 0) {
                     long currentTime = System.currentTimeMillis();
                     long msgDataTimeL = Long.parseLong(
                             event.getHeaders().get(AttributeConstants.DATA_TIME));
                     long msgRcvTimeL = Long.parseLong(
                             event.getHeaders().get(AttributeConstants.RCV_TIME));
-                    metricItem.sinkDuration.addAndGet(currentTime - sendTime);
-                    metricItem.nodeDuration.addAndGet(currentTime - msgRcvTimeL);
-                    metricItem.wholeDuration.addAndGet(currentTime - msgDataTimeL);
+                    handle.add(IDX_SINK_DURATION, currentTime - sendTime);
+                    handle.add(IDX_NODE_DURATION, currentTime - msgRcvTimeL);
+                    handle.add(IDX_WHOLE_DURATION, currentTime - msgDataTimeL);
                 }
             } else {
-                metricItem.sendFailCount.addAndGet(msgCount);
-                metricItem.sendFailSize.addAndGet(size);
+                handle.add(IDX_SEND_FAIL_COUNT, msgCount);
+                handle.add(IDX_SEND_FAIL_SIZE, size);
             }
-            metricItem.sendCount.addAndGet(msgCount);
-            metricItem.sendSize.addAndGet(size);
+            handle.add(IDX_SEND_COUNT, msgCount);
+            handle.add(IDX_SEND_SIZE, size);
         }
     }
 
+    /**
+     * Find the metric handle of the dimension tuple, the dimension map is only built
+     * when the handle is created, and the dimension with null value is left out of it
+     *
+     * @param clusterId     the cluster id
+     * @param sourceId      the source id
+     * @param sourceDataId  the source data id
+     * @param groupId       the inlong group id
+     * @param streamId      the inlong stream id
+     * @param sinkId        the sink id
+     * @param sinkDataId    the sink data id
+     * @param msgTime       the audit format time of the message
+     * @return the metric handle
+     */
+    public MetricHandle findMetricHandle(String clusterId, String sourceId, String sourceDataId,
+            String groupId, String streamId, String sinkId, String sinkDataId, long msgTime) {
+        return findMetricHandle(new HandleKey(clusterId, sourceId, sourceDataId,
+                groupId, streamId, sinkId, sinkDataId, msgTime), HandleKey::toDimensions);
+    }
+
+    @Override
+    protected String[] getHandleMetricNames() {
+        return HANDLE_METRIC_NAMES;
+    }
+
     /**
      * createItem
      * 
@@ -171,4 +223,73 @@ public class DataProxyMetricItemSet extends MetricItemSet<DataProxyMetricItem> {
         return new DataProxyMetricItem();
     }
 
+    /**
+     * HandleKey, the dimension tuple of a metric handle
+     */
+    private static class HandleKey {
+
+        private final String clusterId;
+        private final String sourceId;
+        private final String sourceDataId;
+        private final String groupId;
+        private final String streamId;
+        private final String sinkId;
+        private final String sinkDataId;
+        private final long msgTime;
+
+        HandleKey(String clusterId, String sourceId, String sourceDataId,
+                String groupId, String streamId, String sinkId, String sinkDataId, long msgTime) {
+            this.clusterId = clusterId;
+            this.sourceId = sourceId;
+            this.sourceDataId = sourceDataId;
+            this.groupId = groupId;
+            this.streamId = streamId;
+            this.sinkId = sinkId;
+            this.sinkDataId = sinkDataId;
+            this.msgTime = msgTime;
+        }
+
+        Map<String, String> toDimensions() {
+            Map<String, String> dimensions = new HashMap<>();
+            putIfNotNull(dimensions, DataProxyMetricItem.KEY_CLUSTER_ID, clusterId);
+            putIfNotNull(dimensions, DataProxyMetricItem.KEY_SOURCE_ID, sourceId);
+            putIfNotNull(dimensions, DataProxyMetricItem.KEY_SOURCE_DATA_ID, sourceDataId);
+            putIfNotNull(dimensions, DataProxyMetricItem.KEY_INLONG_GROUP_ID, groupId);
+            putIfNotNull(dimensions, DataProxyMetricItem.KEY_INLONG_STREAM_ID, streamId);
+            putIfNotNull(dimensions, DataProxyMetricItem.KEY_SINK_ID, sinkId);
+            putIfNotNull(dimensions, DataProxyMetricItem.KEY_SINK_DATA_ID, sinkDataId);
+            dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(msgTime));
+            return dimensions;
+        }
+
+        private static void putIfNotNull(Map<String, String> dimensions, String key, String value) {
+            if (value != null) {
+                dimensions.put(key, value);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HandleKey)) {
+                return false;
+            }
+            HandleKey that = (HandleKey) o;
+            return msgTime == that.msgTime
+                    && Objects.equals(groupId, that.groupId)
+                    && Objects.equals(streamId, that.streamId)
+                    && Objects.equals(sinkDataId, that.sinkDataId)
+                    && Objects.equals(sourceDataId, that.sourceDataId)
+                    && Objects.equals(sinkId, that.sinkId)
+                    && Objects.equals(sourceId, that.sourceId)
+                    && Objects.equals(clusterId, that.clusterId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(clusterId, sourceId, sourceDataId, groupId, streamId, sinkId, sinkDataId, msgTime);
+        }
+    }
 }
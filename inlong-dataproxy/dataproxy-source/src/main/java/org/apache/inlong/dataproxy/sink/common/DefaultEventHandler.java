@@ -23,18 +23,11 @@ import org.apache.inlong.dataproxy.config.pojo.IdTopicConfig;
 import org.apache.inlong.dataproxy.consts.ConfigConstants;
 import org.apache.inlong.dataproxy.sink.mq.BatchPackProfile;
 import org.apache.inlong.sdk.commons.protocol.EventConstants;
-import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
-import org.apache.inlong.sdk.commons.protocol.ProxySdk.MapFieldEntry;
-import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObj;
-import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObjs;
-import org.apache.inlong.sdk.commons.utils.GzipUtils;
 
-import com.google.protobuf.ByteString;
-import org.xerial.snappy.Snappy;
+import io.netty.buffer.ByteBuf;
 
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -69,7 +62,9 @@ public class DefaultEventHandler implements EventHandler {
         // compress type of body data
         // INLONG_NO_COMPRESS = 0,
         // INLONG_GZ = 1,
-        // INLONG_SNAPPY = 2
+        // INLONG_SNAPPY = 2,
+        // INLONG_ZSTD = 3,
+        // INLONG_LZ4 = 4
         headers.put(EventConstants.HEADER_KEY_COMPRESS_TYPE,
                 String.valueOf(compressType.getName()));
         // messageKey string partition hash key, optional
@@ -82,35 +77,16 @@ public class DefaultEventHandler implements EventHandler {
     @Override
     public byte[] parseBody(IdTopicConfig idConfig, BatchPackProfile profile, InlongCompressType compressType)
             throws IOException {
-        List<ProxyEvent> events = profile.getEvents();
-        // encode
-        MessageObjs.Builder objs = MessageObjs.newBuilder();
-        for (ProxyEvent event : events) {
-            MessageObj.Builder builder = MessageObj.newBuilder();
-            builder.setMsgTime(event.getMsgTime());
-            builder.setSourceIp(event.getSourceIp());
-            event.getHeaders().forEach((key, value) -> {
-                builder.addParams(MapFieldEntry.newBuilder().setKey(key).setValue(value));
-            });
-            builder.setBody(ByteString.copyFrom(event.getBody()));
-            objs.addMsgs(builder.build());
-        }
-        byte[] srcBytes = objs.build().toByteArray();
-        // compress
-        byte[] compressBytes = null;
-        switch (compressType) {
-            case INLONG_SNAPPY:
-                compressBytes = Snappy.compress(srcBytes);
-                break;
-            case INLONG_GZ:
-                compressBytes = GzipUtils.compress(srcBytes);
-                break;
-            case NONE:
-            default:
-                compressBytes = srcBytes;
-                break;
-        }
-        return compressBytes;
+        return MessageObjsEncoder.toByteArrayAndRelease(parseBodyToBuf(idConfig, profile, compressType));
+    }
+
+    /**
+     * parseBodyToBuf
+     */
+    @Override
+    public ByteBuf parseBodyToBuf(IdTopicConfig idConfig, BatchPackProfile profile,
+            InlongCompressType compressType) throws IOException {
+        return MessageObjsEncoder.encode(profile.getEvents(), compressType);
     }
 
 }
@@ -21,6 +21,9 @@ import org.apache.inlong.common.enums.InlongCompressType;
 import org.apache.inlong.dataproxy.config.pojo.IdTopicConfig;
 import org.apache.inlong.dataproxy.sink.mq.BatchPackProfile;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
 import java.util.Map;
 
 /**
@@ -40,4 +43,12 @@ public interface EventHandler {
      */
     byte[] parseBody(IdTopicConfig idConfig, BatchPackProfile profile, InlongCompressType compressType)
             throws Exception;
+
+    /**
+     * parseBodyToBuf, for the MQ client which accepts ByteBuffer, the caller must release the returned buffer
+     */
+    default ByteBuf parseBodyToBuf(IdTopicConfig idConfig, BatchPackProfile profile,
+            InlongCompressType compressType) throws Exception {
+        return Unpooled.wrappedBuffer(parseBody(idConfig, profile, compressType));
+    }
 }
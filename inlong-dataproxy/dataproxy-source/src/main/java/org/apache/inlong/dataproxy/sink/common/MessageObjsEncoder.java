@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.common;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.common.util.CompressUtils;
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * MessageObjsEncoder
+ *
+ * <p/>
+ * Encode the events to the MessageObjs protobuf format directly into a pooled direct buffer,
+ * without building the MessageObjs object graph, then compress the buffer into a second pooled buffer.
+ * The result is the same as MessageObjs.toByteArray() compressed by Snappy.compress(byte[]),
+ * GzipUtils.compress(byte[]) or CompressUtils.compress(InlongCompressType, String, byte[]).
+ */
+public class MessageObjsEncoder {
+
+    // field numbers of ProxySdk.proto
+    private static final int FIELD_MSGS = 1;
+    private static final int FIELD_MSG_TIME = 1;
+    private static final int FIELD_SOURCE_IP = 2;
+    private static final int FIELD_BODY = 3;
+    private static final int FIELD_PARAMS = 4;
+    private static final int FIELD_KEY = 1;
+    private static final int FIELD_VALUE = 2;
+    // initial capacity ratio of the gzip output buffer
+    private static final int GZIP_INIT_RATIO = 4;
+
+    private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+    private MessageObjsEncoder() {
+    }
+
+    /**
+     * encode and compress the events, the caller must release the returned buffer
+     *
+     * @param events the events to encode
+     * @param compressType the compress type
+     * @return the pooled buffer of the encoded body
+     * @throws IOException if encode or compress failure
+     */
+    public static ByteBuf encode(List<ProxyEvent> events, InlongCompressType compressType) throws IOException {
+        ByteBuf srcBuf = encodeMessageObjs(events);
+        if (compressType == null || compressType == InlongCompressType.NONE) {
+            return srcBuf;
+        }
+        try {
+            String streamKey = events.isEmpty() ? null : events.get(0).getUid();
+            return compress(srcBuf, compressType, streamKey);
+        } finally {
+            srcBuf.release();
+        }
+    }
+
+    /**
+     * encode the events to MessageObjs, the caller must release the returned buffer
+     *
+     * @param events the events to encode
+     * @return the pooled direct buffer of MessageObjs
+     * @throws IOException if encode failure
+     */
+    public static ByteBuf encodeMessageObjs(List<ProxyEvent> events) throws IOException {
+        // compute the size of each MessageObj, so the buffer is allocated once
+        int[] objSizes = new int[events.size()];
+        int totalSize = 0;
+        for (int i = 0; i < objSizes.length; i++) {
+            objSizes[i] = computeMessageObjSize(events.get(i));
+            totalSize += CodedOutputStream.computeTagSize(FIELD_MSGS)
+                    + CodedOutputStream.computeUInt32SizeNoTag(objSizes[i]) + objSizes[i];
+        }
+        ByteBuf buffer = ALLOCATOR.directBuffer(totalSize, totalSize);
+        try {
+            CodedOutputStream output = CodedOutputStream.newInstance(buffer.nioBuffer(0, totalSize));
+            for (int i = 0; i < objSizes.length; i++) {
+                ProxyEvent event = events.get(i);
+                output.writeTag(FIELD_MSGS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(objSizes[i]);
+                output.writeInt64(FIELD_MSG_TIME, event.getMsgTime());
+                output.writeString(FIELD_SOURCE_IP, event.getSourceIp());
+                output.writeByteArray(FIELD_BODY, event.getBody());
+                for (Map.Entry<String, String> entry : event.getHeaders().entrySet()) {
+                    output.writeTag(FIELD_PARAMS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                    output.writeUInt32NoTag(computeParamSize(entry));
+                    output.writeString(FIELD_KEY, entry.getKey());
+                    output.writeString(FIELD_VALUE, entry.getValue());
+                }
+            }
+            output.flush();
+            output.checkNoSpaceLeft();
+            buffer.writerIndex(totalSize);
+            return buffer;
+        } catch (Throwable e) {
+            buffer.release();
+            throw e;
+        }
+    }
+
+    /**
+     * compress the buffer to a new buffer, the source buffer is not released
+     *
+     * @param srcBuf the source buffer
+     * @param compressType the compress type
+     * @return the pooled buffer of compressed data
+     * @throws IOException if compress failure
+     */
+    public static ByteBuf compress(ByteBuf srcBuf, InlongCompressType compressType) throws IOException {
+        return compress(srcBuf, compressType, null);
+    }
+
+    /**
+     * compress the buffer to a new buffer, the source buffer is not released
+     *
+     * @param srcBuf the source buffer
+     * @param compressType the compress type
+     * @param streamKey the stream key to find the zstd dictionary, may be null
+     * @return the buffer of compressed data
+     * @throws IOException if compress failure
+     */
+    public static ByteBuf compress(ByteBuf srcBuf,
+            InlongCompressType compressType, String streamKey) throws IOException {
+        int srcLength = srcBuf.readableBytes();
+        ByteBuf dstBuf;
+        switch (compressType) {
+            case INLONG_SNAPPY:
+                int maxLength = Snappy.maxCompressedLength(srcLength);
+                dstBuf = ALLOCATOR.directBuffer(maxLength, maxLength);
+                try {
+                    int length = Snappy.compress(srcBuf.nioBuffer(srcBuf.readerIndex(), srcLength),
+                            dstBuf.nioBuffer(0, maxLength));
+                    dstBuf.writerIndex(length);
+                    return dstBuf;
+                } catch (Throwable e) {
+                    dstBuf.release();
+                    throw e;
+                }
+            case INLONG_GZ:
+                if (srcLength == 0) {
+                    return srcBuf.retainedDuplicate();
+                }
+                dstBuf = ALLOCATOR.directBuffer(srcLength / GZIP_INIT_RATIO + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(new ByteBufOutputStream(dstBuf))) {
+                    srcBuf.getBytes(srcBuf.readerIndex(), gzip, srcLength);
+                } catch (Throwable e) {
+                    dstBuf.release();
+                    throw e;
+                }
+                return dstBuf;
+            case INLONG_ZSTD:
+            case INLONG_LZ4:
+                // zstd-jni and lz4-java work on heap arrays here
+                byte[] srcBytes = ByteBufUtil.getBytes(srcBuf, srcBuf.readerIndex(), srcLength, false);
+                return Unpooled.wrappedBuffer(
+                        CompressUtils.compress(compressType, streamKey, srcBytes));
+            case NONE:
+            default:
+                return srcBuf.retainedDuplicate();
+        }
+    }
+
+    /**
+     * copy the readable bytes of the buffer to an array and release the buffer
+     *
+     * @param buffer the buffer
+     * @return the byte array
+     */
+    public static byte[] toByteArrayAndRelease(ByteBuf buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.getBytes(buffer.readerIndex(), bytes);
+            return bytes;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static int computeMessageObjSize(ProxyEvent event) {
+        int size = CodedOutputStream.computeInt64Size(FIELD_MSG_TIME, event.getMsgTime())
+                + CodedOutputStream.computeStringSize(FIELD_SOURCE_IP, event.getSourceIp())
+                + CodedOutputStream.computeByteArraySize(FIELD_BODY, event.getBody());
+        for (Map.Entry<String, String> entry : event.getHeaders().entrySet()) {
+            int paramSize = computeParamSize(entry);
+            size += CodedOutputStream.computeTagSize(FIELD_PARAMS)
+                    + CodedOutputStream.computeUInt32SizeNoTag(paramSize) + paramSize;
+        }
+        return size;
+    }
+
+    private static int computeParamSize(Map.Entry<String, String> entry) {
+        return CodedOutputStream.computeStringSize(FIELD_KEY, entry.getKey())
+                + CodedOutputStream.computeStringSize(FIELD_VALUE, entry.getValue());
+    }
+}
@@ -80,9 +80,39 @@ public class BatchPackManager {
      */
     public void addEvent(ProxyEvent event) {
         // parse
-        String eventUid = event.getUid();
         long dispatchTime = event.getMsgTime() - event.getMsgTime() % MINUTE_MS;
-        String dispatchKey = eventUid + "." + dispatchTime;
+        this.addEvent(event.getUid() + "." + dispatchTime, dispatchTime, event);
+    }
+
+    /**
+     * addEvents, the events are of the same uid, so the dispatch key is only
+     * rebuilt when the dispatch minute changes.
+     * The added events are removed from the list, so if it fails,
+     * the list only holds the events which are not added.
+     *
+     * @param events the events of the same uid to add
+     */
+    public void addEvents(List<ProxyEvent> events) {
+        String dispatchKey = null;
+        long lastDispatchTime = -1L;
+        int addedCount = 0;
+        try {
+            for (ProxyEvent event : events) {
+                long dispatchTime = event.getMsgTime() - event.getMsgTime() % MINUTE_MS;
+                if (dispatchKey == null || dispatchTime != lastDispatchTime) {
+                    dispatchKey = event.getUid() + "." + dispatchTime;
+                    lastDispatchTime = dispatchTime;
+                }
+                this.addEvent(dispatchKey, dispatchTime, event);
+                addedCount++;
+            }
+        } finally {
+            events.subList(0, addedCount).clear();
+        }
+    }
+
+    private void addEvent(String dispatchKey, long dispatchTime, ProxyEvent event) {
+        String eventUid = event.getUid();
         // find dispatch profile
         PackProfile dispatchProfile = this.profileCache.get(dispatchKey);
         if (dispatchProfile == null) {
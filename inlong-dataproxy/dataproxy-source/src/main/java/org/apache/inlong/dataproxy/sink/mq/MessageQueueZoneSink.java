@@ -41,7 +41,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -83,6 +85,8 @@ public class MessageQueueZoneSink extends AbstractSink implements Configurable,
     private volatile boolean isShutdown = false;
     // whether mq cluster connected
     private volatile boolean mqClusterStarted = false;
+    // the undispatched events which failed to be put back to channel, only accessed by the sink runner thread
+    private final List<Event> pendingRequeueEvents = new ArrayList<>();
 
     /**
      * configure
@@ -165,6 +169,11 @@ public class MessageQueueZoneSink extends AbstractSink implements Configurable,
                 logger.error("{} stop Zone worker failure", this.cachedSinkName, e);
             }
         }
+        // the last chance to put the undispatched events back to channel
+        if (!this.pendingRequeueEvents.isEmpty() && !this.requeuePendingEvents()) {
+            logger.error("{} lost {} undispatched events which are not put back to channel",
+                    this.cachedSinkName, this.pendingRequeueEvents.size());
+        }
         this.context.close();
         super.stop();
     }
@@ -187,71 +196,67 @@ public class MessageQueueZoneSink extends AbstractSink implements Configurable,
                 //
             }
         }
+        // the overtime check only runs when the dispatch timer has set the flag
         this.dispatchManager.outputOvertimeData();
+        // put the undispatched events of the failed batch back to channel before taking new ones,
+        // the sink runner backs off and retries while the channel is still full
+        if (!this.pendingRequeueEvents.isEmpty() && !this.requeuePendingEvents()) {
+            return Status.BACKOFF;
+        }
+        int maxTakeCount = context.getMaxTakeBatchCount();
+        long maxTakeSize = context.getMaxTakeBatchSize();
+        // events of the batch grouped by uid, null if take one event per transaction
+        Map<String, List<ProxyEvent>> uidEvents = maxTakeCount > 1 ? new HashMap<>() : null;
+        long takeSize = 0L;
+        List<Event> takenEvents = new ArrayList<>();
+        // index of the next event to dispatch in the taken events
+        int dispatchIndex = 0;
+        // the taken events which are not dispatched when the batch fails
+        List<Event> requeueEvents = null;
         Transaction tx = cachedMsgChannel.getTransaction();
         tx.begin();
         try {
-            Event event = cachedMsgChannel.take();
-            // no data
-            if (event == null) {
-                tx.commit();
-                return Status.BACKOFF;
-            }
-            context.fileMetricIncSumStats(StatConstants.EVENT_SINK_EVENT_TAKE_SUCCESS);
-            // ProxyEvent
-            if (event instanceof ProxyEvent) {
-                ProxyEvent proxyEvent = (ProxyEvent) event;
-                this.dispatchManager.addEvent(proxyEvent);
-                tx.commit();
-                return Status.READY;
-            }
-            // ProxyPackEvent
-            if (event instanceof ProxyPackEvent) {
-                ProxyPackEvent packEvent = (ProxyPackEvent) event;
-                this.dispatchManager.addPackEvent(packEvent);
-                tx.commit();
-                return Status.READY;
+            while (takenEvents.size() < maxTakeCount && takeSize < maxTakeSize) {
+                Event event = cachedMsgChannel.take();
+                // no data
+                if (event == null) {
+                    break;
+                }
+                takenEvents.add(event);
+                if (event.getBody() != null) {
+                    takeSize += event.getBody().length;
+                }
+                context.fileMetricIncSumStats(StatConstants.EVENT_SINK_EVENT_TAKE_SUCCESS);
             }
-            // SimpleEvent, send as is
-            if (event instanceof SimpleEvent) {
-                SimpleEvent simpleEvent = (SimpleEvent) event;
-                this.dispatchManager.addSimpleEvent(simpleEvent);
-                tx.commit();
-                return Status.READY;
+            for (; dispatchIndex < takenEvents.size(); dispatchIndex++) {
+                this.dispatchEvent(takenEvents.get(dispatchIndex), uidEvents);
             }
-            // file event
-            if (StringUtils.isEmpty(event.getHeaders().get(ConfigConstants.MSG_ENCODE_VER))) {
-                String groupId = event.getHeaders().get(EventConstants.INLONG_GROUP_ID);
-                String streamId = event.getHeaders().get(EventConstants.INLONG_STREAM_ID);
-                String msgTimeStr = event.getHeaders().get(EventConstants.HEADER_KEY_MSG_TIME);
-                String sourceIp = event.getHeaders().get(EventConstants.HEADER_KEY_SOURCE_IP);
-                String sourceTimeStr = event.getHeaders().get(EventConstants.HEADER_KEY_SOURCE_TIME);
-                if (groupId != null
-                        && streamId != null
-                        && msgTimeStr != null
-                        && sourceIp != null
-                        && sourceTimeStr != null) {
-                    ProxyEvent proxyEvent = new ProxyEvent(groupId, streamId, msgTimeStr,
-                            sourceIp, sourceTimeStr, event.getHeaders(), event.getBody());
-                    this.dispatchManager.addEvent(proxyEvent);
-                    context.fileMetricIncSumStats(StatConstants.EVENT_SINK_FILE_V1_TAKE_SUCCESS);
-                } else {
-                    context.fileMetricIncSumStats(StatConstants.EVENT_SINK_EVENT_V1_MALFORMED);
+            if (uidEvents != null) {
+                for (List<ProxyEvent> events : uidEvents.values()) {
+                    this.dispatchManager.addEvents(events);
                 }
-            } else {
-                SimpleEvent simpleEvent = new SimpleEvent();
-                simpleEvent.setBody(event.getBody());
-                simpleEvent.setHeaders(event.getHeaders());
-                this.dispatchManager.addSimpleEvent(simpleEvent);
-                context.fileMetricIncSumStats(StatConstants.EVENT_SINK_FILE_V0_TAKE_SUCCESS);
             }
             tx.commit();
-            return Status.READY;
+            return takenEvents.isEmpty() ? Status.BACKOFF : Status.READY;
         } catch (Throwable t) {
             context.fileMetricIncSumStats(StatConstants.EVENT_SINK_EVENT_TAKE_FAILURE);
             if (logCounter.shouldPrint()) {
                 logger.error("{} process event failed!", this.cachedSinkName, t);
             }
+            requeueEvents = this.getUndispatchedEvents(takenEvents, dispatchIndex, uidEvents);
+            if (requeueEvents.size() < takenEvents.size()) {
+                // a rollback puts the dispatched events back to the channel and they are sent twice,
+                // so commit the batch and put back the events which are not dispatched
+                try {
+                    tx.commit();
+                    return Status.BACKOFF;
+                } catch (Throwable e) {
+                    if (logCounter.shouldPrint()) {
+                        logger.error("{} channel take transaction commit exception", this.cachedSinkName, e);
+                    }
+                }
+            }
+            requeueEvents = null;
             try {
                 tx.rollback();
             } catch (Throwable e) {
@@ -262,6 +267,125 @@ public class MessageQueueZoneSink extends AbstractSink implements Configurable,
             return Status.BACKOFF;
         } finally {
             tx.close();
+            if (requeueEvents != null && !requeueEvents.isEmpty()) {
+                this.pendingRequeueEvents.addAll(requeueEvents);
+                this.requeuePendingEvents();
+            }
+        }
+    }
+
+    /**
+     * getUndispatchedEvents
+     *
+     * @param takenEvents the events taken from channel
+     * @param dispatchIndex the index of the first taken event which is not dispatched
+     * @param uidEvents the grouped ProxyEvents which are not added to the dispatch manager
+     * @return the taken events which are not dispatched
+     */
+    private List<Event> getUndispatchedEvents(List<Event> takenEvents, int dispatchIndex,
+            Map<String, List<ProxyEvent>> uidEvents) {
+        List<Event> events = new ArrayList<>();
+        if (uidEvents != null) {
+            uidEvents.values().forEach(events::addAll);
+        }
+        events.addAll(takenEvents.subList(dispatchIndex, takenEvents.size()));
+        return events;
+    }
+
+    /**
+     * put the pending events which are not dispatched back to the channel,
+     * the events are kept to retry if the channel put fails
+     *
+     * @return true if all the pending events are put back
+     */
+    private boolean requeuePendingEvents() {
+        Transaction tx = cachedMsgChannel.getTransaction();
+        tx.begin();
+        try {
+            for (Event event : pendingRequeueEvents) {
+                cachedMsgChannel.put(event);
+            }
+            tx.commit();
+            pendingRequeueEvents.clear();
+            context.fileMetricIncSumStats(StatConstants.EVENT_SINK_EVENT_REQUEUE_SUCCESS);
+            return true;
+        } catch (Throwable t) {
+            context.fileMetricIncSumStats(StatConstants.EVENT_SINK_EVENT_REQUEUE_FAILURE);
+            if (logCounter.shouldPrint()) {
+                logger.error("{} put {} undispatched events back to channel failed, retry later!",
+                        this.cachedSinkName, pendingRequeueEvents.size(), t);
+            }
+            try {
+                tx.rollback();
+            } catch (Throwable e) {
+                if (logCounter.shouldPrint()) {
+                    logger.error("{} channel put transaction rollback exception", this.cachedSinkName, e);
+                }
+            }
+            return false;
+        } finally {
+            tx.close();
+        }
+    }
+
+    /**
+     * dispatchEvent
+     *
+     * @param event the event taken from channel
+     * @param uidEvents the ProxyEvents grouped by uid, added to the dispatch manager after the batch is taken;
+     *                  if null, the ProxyEvent is added to the dispatch manager at once
+     */
+    private void dispatchEvent(Event event, Map<String, List<ProxyEvent>> uidEvents) {
+        // ProxyEvent
+        if (event instanceof ProxyEvent) {
+            this.dispatchProxyEvent((ProxyEvent) event, uidEvents);
+            return;
+        }
+        // ProxyPackEvent
+        if (event instanceof ProxyPackEvent) {
+            ProxyPackEvent packEvent = (ProxyPackEvent) event;
+            this.dispatchManager.addPackEvent(packEvent);
+            return;
+        }
+        // SimpleEvent, send as is
+        if (event instanceof SimpleEvent) {
+            SimpleEvent simpleEvent = (SimpleEvent) event;
+            this.dispatchManager.addSimpleEvent(simpleEvent);
+            return;
+        }
+        // file event
+        if (StringUtils.isEmpty(event.getHeaders().get(ConfigConstants.MSG_ENCODE_VER))) {
+            String groupId = event.getHeaders().get(EventConstants.INLONG_GROUP_ID);
+            String streamId = event.getHeaders().get(EventConstants.INLONG_STREAM_ID);
+            String msgTimeStr = event.getHeaders().get(EventConstants.HEADER_KEY_MSG_TIME);
+            String sourceIp = event.getHeaders().get(EventConstants.HEADER_KEY_SOURCE_IP);
+            String sourceTimeStr = event.getHeaders().get(EventConstants.HEADER_KEY_SOURCE_TIME);
+            if (groupId != null
+                    && streamId != null
+                    && msgTimeStr != null
+                    && sourceIp != null
+                    && sourceTimeStr != null) {
+                ProxyEvent proxyEvent = new ProxyEvent(groupId, streamId, msgTimeStr,
+                        sourceIp, sourceTimeStr, event.getHeaders(), event.getBody());
+                this.dispatchProxyEvent(proxyEvent, uidEvents);
+                context.fileMetricIncSumStats(StatConstants.EVENT_SINK_FILE_V1_TAKE_SUCCESS);
+            } else {
+                context.fileMetricIncSumStats(StatConstants.EVENT_SINK_EVENT_V1_MALFORMED);
+            }
+        } else {
+            SimpleEvent simpleEvent = new SimpleEvent();
+            simpleEvent.setBody(event.getBody());
+            simpleEvent.setHeaders(event.getHeaders());
+            this.dispatchManager.addSimpleEvent(simpleEvent);
+            context.fileMetricIncSumStats(StatConstants.EVENT_SINK_FILE_V0_TAKE_SUCCESS);
+        }
+    }
+
+    private void dispatchProxyEvent(ProxyEvent proxyEvent, Map<String, List<ProxyEvent>> uidEvents) {
+        if (uidEvents == null) {
+            this.dispatchManager.addEvent(proxyEvent);
+        } else {
+            uidEvents.computeIfAbsent(proxyEvent.getUid(), k -> new ArrayList<>()).add(proxyEvent);
         }
     }
 
@@ -19,9 +19,10 @@ package org.apache.inlong.dataproxy.sink.mq;
 
 import org.apache.inlong.common.enums.DataProxyErrCode;
 import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.common.metric.MetricHandle;
 import org.apache.inlong.dataproxy.config.CommonConfigHolder;
 import org.apache.inlong.dataproxy.consts.StatConstants;
-import org.apache.inlong.dataproxy.metrics.DataProxyMetricItem;
+import org.apache.inlong.dataproxy.metrics.DataProxyMetricItemSet;
 import org.apache.inlong.dataproxy.metrics.audit.AuditUtils;
 import org.apache.inlong.dataproxy.sink.common.SinkContext;
 
@@ -31,7 +32,6 @@ import org.apache.flume.Channel;
 import org.apache.flume.Context;
 import org.apache.flume.conf.Configurable;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -43,6 +43,13 @@ public class MessageQueueZoneSinkContext extends SinkContext {
     public static final String KEY_NODE_ID = "nodeId";
     public static final String PREFIX_PRODUCER = "producer.";
     public static final String KEY_COMPRESS_TYPE = "compressType";
+    // max event count taken from channel in one transaction, 1 means take one event per transaction,
+    // it should not be greater than the transactionCapacity of the channel
+    public static final String KEY_MAX_TAKE_BATCH_COUNT = "maxTakeBatchCount";
+    public static final int DEFAULT_MAX_TAKE_BATCH_COUNT = 1;
+    // max event body bytes taken from channel in one transaction
+    public static final String KEY_MAX_TAKE_BATCH_SIZE = "maxTakeBatchSize";
+    public static final long DEFAULT_MAX_TAKE_BATCH_SIZE = 1024 * 1024L;
 
     private final MessageQueueZoneSink mqZoneSink;
     private final String proxyClusterId;
@@ -50,6 +57,8 @@ public class MessageQueueZoneSinkContext extends SinkContext {
     private final Context producerContext;
     //
     private final InlongCompressType compressType;
+    private final int maxTakeBatchCount;
+    private final long maxTakeBatchSize;
 
     /**
      * Constructor
@@ -66,6 +75,11 @@ public class MessageQueueZoneSinkContext extends SinkContext {
         // producerContext
         Map<String, String> producerParams = context.getSubProperties(PREFIX_PRODUCER);
         this.producerContext = new Context(producerParams);
+        // take batch
+        this.maxTakeBatchCount = Math.max(1, context.getInteger(KEY_MAX_TAKE_BATCH_COUNT,
+                DEFAULT_MAX_TAKE_BATCH_COUNT));
+        this.maxTakeBatchSize = Math.max(1L, context.getLong(KEY_MAX_TAKE_BATCH_SIZE,
+                DEFAULT_MAX_TAKE_BATCH_SIZE));
     }
 
     /**
@@ -118,6 +132,24 @@ public class MessageQueueZoneSinkContext extends SinkContext {
         return compressType;
     }
 
+    /**
+     * get maxTakeBatchCount
+     *
+     * @return the max event count taken in one transaction
+     */
+    public int getMaxTakeBatchCount() {
+        return maxTakeBatchCount;
+    }
+
+    /**
+     * get maxTakeBatchSize
+     *
+     * @return the max event bytes taken in one transaction
+     */
+    public long getMaxTakeBatchSize() {
+        return maxTakeBatchSize;
+    }
+
     /**
      * get nodeId
      * 
@@ -139,36 +171,30 @@ public class MessageQueueZoneSinkContext extends SinkContext {
             return;
         }
         BatchPackProfile batchProfile = (BatchPackProfile) currentRecord;
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.getProxyClusterId());
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, "-");
-        // metric
-        fillInlongId(batchProfile, dimensions);
-        dimensions.put(DataProxyMetricItem.KEY_SINK_ID, mqName);
-        dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, topic);
+        String inlongGroupId = getMetricInlongId(batchProfile.getInlongGroupId());
+        String inlongStreamId = getMetricInlongId(batchProfile.getInlongStreamId());
         final long currentTime = System.currentTimeMillis();
         batchProfile.getEvents().forEach(event -> {
             long msgTime = event.getMsgTime();
             long auditFormatTime =
                     msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-            dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-            DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+            MetricHandle handle = this.getMetricItemSet().findMetricHandle(this.getProxyClusterId(),
+                    "-", "-", inlongGroupId, inlongStreamId, mqName, topic, auditFormatTime);
             if (result) {
-                metricItem.sendSuccessCount.addAndGet(1);
-                metricItem.sendSuccessSize.addAndGet(event.getBody().length);
+                handle.increment(DataProxyMetricItemSet.IDX_SEND_SUCCESS_COUNT);
+                handle.add(DataProxyMetricItemSet.IDX_SEND_SUCCESS_SIZE, event.getBody().length);
                 if (sendTime > 0) {
                     long sinkDuration = currentTime - sendTime;
                     long nodeDuration = currentTime - event.getSourceTime();
                     long wholeDuration = currentTime - msgTime;
-                    metricItem.sinkDuration.addAndGet(sinkDuration);
-                    metricItem.nodeDuration.addAndGet(nodeDuration);
-                    metricItem.wholeDuration.addAndGet(wholeDuration);
+                    handle.add(DataProxyMetricItemSet.IDX_SINK_DURATION, sinkDuration);
+                    handle.add(DataProxyMetricItemSet.IDX_NODE_DURATION, nodeDuration);
+                    handle.add(DataProxyMetricItemSet.IDX_WHOLE_DURATION, wholeDuration);
                 }
                 AuditUtils.addOutputSuccess(event);
             } else {
-                metricItem.sendFailCount.addAndGet(1);
-                metricItem.sendFailSize.addAndGet(event.getBody().length);
+                handle.increment(DataProxyMetricItemSet.IDX_SEND_FAIL_COUNT);
+                handle.add(DataProxyMetricItemSet.IDX_SEND_FAIL_SIZE, event.getBody().length);
             }
         });
     }
@@ -177,58 +203,36 @@ public class MessageQueueZoneSinkContext extends SinkContext {
      * addSendMetric
      */
     public void addSendMetric(PackProfile currentRecord, String mqName, String topic, int sendPackSize) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.getProxyClusterId());
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, "-");
-        // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(DataProxyMetricItem.KEY_SINK_ID, mqName);
-        dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, topic);
         long msgTime = currentRecord.getDispatchTime();
         long auditFormatTime =
                 msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
-        long count = currentRecord.getCount();
-        long size = currentRecord.getSize();
-        metricItem.sendCount.addAndGet(count);
-        metricItem.sendSize.addAndGet(size);
-        metricItem.sendPackCount.incrementAndGet();
-        metricItem.sendPackSize.addAndGet(sendPackSize);
+        MetricHandle handle = this.getMetricItemSet().findMetricHandle(this.getProxyClusterId(), "-", "-",
+                getMetricInlongId(currentRecord.getInlongGroupId()),
+                getMetricInlongId(currentRecord.getInlongStreamId()), mqName, topic, auditFormatTime);
+        handle.add(DataProxyMetricItemSet.IDX_SEND_COUNT, currentRecord.getCount());
+        handle.add(DataProxyMetricItemSet.IDX_SEND_SIZE, currentRecord.getSize());
+        handle.increment(DataProxyMetricItemSet.IDX_SEND_PACK_COUNT);
+        handle.add(DataProxyMetricItemSet.IDX_SEND_PACK_SIZE, sendPackSize);
     }
 
     /**
      * addReadFailMetric
      */
     public void addSendFailMetric() {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.getProxyClusterId());
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_GROUP_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_STREAM_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, "-");
         long msgTime = System.currentTimeMillis();
         long auditFormatTime =
                 msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
-        metricItem.sendFailCount.incrementAndGet();
-        metricItem.sendFailSize.incrementAndGet();
+        MetricHandle handle = this.getMetricItemSet().findMetricHandle(this.getProxyClusterId(),
+                "-", "-", "-", "-", this.getSinkName(), "-", auditFormatTime);
+        handle.increment(DataProxyMetricItemSet.IDX_SEND_FAIL_COUNT);
+        handle.increment(DataProxyMetricItemSet.IDX_SEND_FAIL_SIZE);
     }
 
     /**
-     * fillInlongId
+     * getMetricInlongId
      */
-    public static void fillInlongId(PackProfile currentRecord, Map<String, String> dimensions) {
-        String inlongGroupId = currentRecord.getInlongGroupId();
-        inlongGroupId = (StringUtils.isBlank(inlongGroupId)) ? "-" : inlongGroupId;
-        String inlongStreamId = currentRecord.getInlongStreamId();
-        inlongStreamId = (StringUtils.isBlank(inlongStreamId)) ? "-" : inlongStreamId;
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_GROUP_ID, inlongGroupId);
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_STREAM_ID, inlongStreamId);
+    private static String getMetricInlongId(String inlongId) {
+        return StringUtils.isBlank(inlongId) ? "-" : inlongId;
     }
 
     /**
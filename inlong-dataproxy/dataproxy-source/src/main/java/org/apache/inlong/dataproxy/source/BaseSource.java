@@ -18,6 +18,7 @@
 package org.apache.inlong.dataproxy.source;
 
 import org.apache.inlong.common.heartbeat.ReportResourceType;
+import org.apache.inlong.common.metric.MetricHandle;
 import org.apache.inlong.common.metric.MetricRegister;
 import org.apache.inlong.dataproxy.admin.ProxyServiceMBean;
 import org.apache.inlong.dataproxy.channel.FailoverChannelProcessor;
@@ -60,7 +61,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Constructor;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -475,20 +475,22 @@ public abstract class BaseSource
      * @param event
      */
     public void addMetric(boolean result, long size, Event event) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, CommonConfigHolder.getInstance().getClusterName());
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, this.cachedSrcName);
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, getStrPort());
-        DataProxyMetricItem.fillInlongId(event, dimensions);
-        DataProxyMetricItem.fillAuditFormatTime(event, dimensions);
-        DataProxyMetricItem metricItem = metricItemSet.findMetricItem(dimensions);
+        String inlongGroupId = null;
+        String inlongStreamId = null;
+        if (event != null) {
+            inlongGroupId = DataProxyMetricItem.getInlongGroupId(event.getHeaders());
+            inlongStreamId = DataProxyMetricItem.getInlongStreamId(event.getHeaders());
+        }
+        MetricHandle handle = metricItemSet.findMetricHandle(CommonConfigHolder.getInstance().getClusterName(),
+                this.cachedSrcName, getStrPort(), inlongGroupId, inlongStreamId, null, null,
+                DataProxyMetricItem.getAuditFormatTime(event));
         if (result) {
-            metricItem.readSuccessCount.incrementAndGet();
-            metricItem.readSuccessSize.addAndGet(size);
+            handle.increment(DataProxyMetricItemSet.IDX_READ_SUCCESS_COUNT);
+            handle.add(DataProxyMetricItemSet.IDX_READ_SUCCESS_SIZE, size);
             AuditUtils.addInputSuccess(event);
         } else {
-            metricItem.readFailCount.incrementAndGet();
-            metricItem.readFailSize.addAndGet(size);
+            handle.increment(DataProxyMetricItemSet.IDX_READ_FAIL_COUNT);
+            handle.add(DataProxyMetricItemSet.IDX_READ_FAIL_SIZE, size);
         }
     }
 
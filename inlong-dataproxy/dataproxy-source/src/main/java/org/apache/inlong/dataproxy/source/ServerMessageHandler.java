@@ -54,7 +54,6 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import static org.apache.inlong.dataproxy.source.ServerMessageFactory.INLONG_LENGTH_FIELD_LENGTH;
 import static org.apache.inlong.dataproxy.source.v0msg.MsgFieldConsts.BIN_HB_ATTRLEN_SIZE;
@@ -81,6 +80,8 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
     private static final LogCounter exceptLogCounter = new LogCounter(10, 50000, 20 * 1000);
 
     private static final int INLONG_MSG_V1 = 1;
+    // the max load value in the heartbeat response, 0xffff means the load is unknown
+    private static final int MAX_HB_LOAD_VALUE = 0xfffe;
 
     private static final ConfigManager configManager = ConfigManager.getInstance();
     private final BaseSource source;
@@ -340,7 +341,7 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
         }
         // process
         if (CommonConfigHolder.getInstance().isDefV1MsgResponseBySink()) {
-            this.processAndWaitingSave(ctx, packObject, events);
+            this.processAndResponseBySink(ctx, packObject, events);
         } else {
             this.processAndResponse(ctx, packObject, events);
         }
@@ -376,20 +377,22 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
     }
 
     /**
-     * processAndWaitingSave
+     * processAndResponseBySink, the response is sent by the sink after the events saved,
+     * or by the timeout timer, without blocking the I/O thread
      * @param ctx
      * @param packObject
      * @param events
-     * @throws Exception
      */
-    private void processAndWaitingSave(ChannelHandlerContext ctx,
+    private void processAndResponseBySink(ChannelHandlerContext ctx,
             ProxySdk.MessagePack packObject,
-            List<ProxyEvent> events) throws Exception {
+            List<ProxyEvent> events) {
         ProxySdk.MessagePackHeader header = packObject.getHeader();
-        InlongTcpSourceCallback callback = new InlongTcpSourceCallback(ctx, header);
+        InlongTcpSourceCallback callback = new InlongTcpSourceCallback(ctx, header,
+                CommonConfigHolder.getInstance().getMaxV1MsgPendingResponses());
         String inlongGroupId = header.getInlongGroupId();
         String inlongStreamId = header.getInlongStreamId();
         ProxyPackEvent packEvent = new ProxyPackEvent(inlongGroupId, inlongStreamId, events, callback);
+        callback.startWaiting(CommonConfigHolder.getInstance().getMaxResAfterSaveTimeout());
         // put to channel
         try {
             source.getCachedChProcessor().processEvent(packEvent);
@@ -397,22 +400,13 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
                 source.addMetric(true, event.getBody().length, event);
                 source.fileMetricIncSumStats(StatConstants.EVENT_MSG_V1_POST_SUCCESS);
             });
-            boolean awaitResult = callback.getLatch().await(
-                    CommonConfigHolder.getInstance().getMaxResAfterSaveTimeout(), TimeUnit.MILLISECONDS);
-            if (!awaitResult) {
-                if (!callback.getHasResponsed().getAndSet(true)) {
-                    this.responsePackage(ctx, ProxySdk.ResultCode.ERR_REJECT, packObject);
-                }
-            }
         } catch (Throwable ex) {
             logger.error("Process Controller Event error can't write event to channel.", ex);
             events.forEach(event -> {
                 source.addMetric(false, event.getBody().length, event);
                 source.fileMetricIncSumStats(StatConstants.EVENT_MSG_V1_POST_DROPPED);
             });
-            if (!callback.getHasResponsed().getAndSet(true)) {
-                this.responsePackage(ctx, ProxySdk.ResultCode.ERR_REJECT, packObject);
-            }
+            callback.callback(ProxySdk.ResultCode.ERR_REJECT);
         }
     }
 
@@ -546,7 +540,26 @@ public class ServerMessageHandler extends ChannelInboundHandlerAdapter {
         }
         // build and send response message
         flushV0MsgPackage(source, channel,
-                buildHBRspPackage(attrData, version, 0), MsgType.MSG_BIN_HEARTBEAT.name());
+                buildHBRspPackage(attrData, version, getNodeLoad(source)), MsgType.MSG_BIN_HEARTBEAT.name());
+    }
+
+    /**
+     * Get the node load reported in the heartbeat response, which is the percentage of
+     * the used connections, or the max value if the node does not accept messages now
+     *
+     * @param source the source
+     * @return the load value, between 1 and MAX_HB_LOAD_VALUE
+     */
+    private int getNodeLoad(BaseSource source) {
+        if (source.isRejectService() || !configManager.isMqClusterReady()) {
+            return MAX_HB_LOAD_VALUE;
+        }
+        if (source.getMaxConnections() <= 0) {
+            return 1;
+        }
+        // 0 is taken as unknown load, so the min value is 1
+        long load = source.getAllChannels().size() * 100L / source.getMaxConnections();
+        return (int) Math.max(1L, Math.min(load, MAX_HB_LOAD_VALUE));
     }
 
     /**
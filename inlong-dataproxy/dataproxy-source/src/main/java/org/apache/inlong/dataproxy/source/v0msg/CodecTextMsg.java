@@ -21,6 +21,7 @@ import org.apache.inlong.common.enums.DataProxyErrCode;
 import org.apache.inlong.common.msg.AttributeConstants;
 import org.apache.inlong.common.msg.InLongMsg;
 import org.apache.inlong.common.msg.MsgType;
+import org.apache.inlong.common.util.CompressUtils;
 import org.apache.inlong.dataproxy.config.ConfigManager;
 import org.apache.inlong.dataproxy.consts.StatConstants;
 import org.apache.inlong.dataproxy.metrics.audit.AuditUtils;
@@ -99,10 +100,17 @@ public class CodecTextMsg extends AbsV0MsgCodec {
         // decompress body data
         if (StringUtils.isNotBlank(attrMap.get(AttributeConstants.COMPRESS_TYPE))) {
             byte[] unCompressedData;
+            String compressType = attrMap.get(AttributeConstants.COMPRESS_TYPE);
             try {
-                int uncompressedLen = Snappy.uncompressedLength(bodyData, 0, bodyData.length);
-                unCompressedData = new byte[uncompressedLen];
-                Snappy.uncompress(bodyData, 0, bodyData.length, unCompressedData, 0);
+                if (AttributeConstants.COMPRESS_TYPE_ZSTD.equalsIgnoreCase(compressType)) {
+                    unCompressedData = CompressUtils.zstdDecompress(bodyData, 0, bodyData.length);
+                } else if (AttributeConstants.COMPRESS_TYPE_LZ4.equalsIgnoreCase(compressType)) {
+                    unCompressedData = CompressUtils.lz4Decompress(bodyData, 0, bodyData.length);
+                } else {
+                    int uncompressedLen = Snappy.uncompressedLength(bodyData, 0, bodyData.length);
+                    unCompressedData = new byte[uncompressedLen];
+                    Snappy.uncompress(bodyData, 0, bodyData.length, unCompressedData, 0);
+                }
             } catch (IOException e) {
                 source.fileMetricIncSumStats(StatConstants.EVENT_MSG_BODY_UNPRESS_EXP);
                 this.errCode = DataProxyErrCode.UNCOMPRESS_DATA_ERROR;
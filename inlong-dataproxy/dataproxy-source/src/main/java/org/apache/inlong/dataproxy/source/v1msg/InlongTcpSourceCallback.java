@@ -27,35 +27,73 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.AttributeKey;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * InlongTcpEventCallback
+ *
+ * <p/>
+ * The response is sent by the sink thread which saved the event, so the I/O thread never waits for the sink.
+ * If the sink does not respond in time, a reject response is sent by the timeout timer instead.
+ * When the pending responses of a connection reach the limit, the connection stops reading
+ * until the pending responses drop to half of the limit. The read state is switched by a CAS on the
+ * suspended flag of the connection, and the auto-read is only set in the I/O thread from the latest flag,
+ * so the sink threads and the I/O thread never leave a connection suspended without pending responses.
  */
 public class InlongTcpSourceCallback implements SourceCallback {
 
     private static final Logger logger = LoggerFactory.getLogger(InlongTcpSourceCallback.class);
     // log print count
     private static final LogCounter logCounter = new LogCounter(10, 100000, 30 * 1000);
+    // timer of the response timeout, shared by all connections
+    private static final HashedWheelTimer timeoutTimer =
+            new HashedWheelTimer(new DefaultThreadFactory("v1msg-response-timeout", true));
+    // pending response count of the connection
+    private static final AttributeKey<AtomicInteger> PENDING_RESPONSES =
+            AttributeKey.valueOf("v1msgPendingResponses");
+    // whether the connection stops reading for the pending responses
+    private static final AttributeKey<AtomicBoolean> READ_SUSPENDED =
+            AttributeKey.valueOf("v1msgReadSuspended");
+
     private final ChannelHandlerContext ctx;
     private final MessagePackHeader header;
-    private final CountDownLatch latch;
+    private final int maxPendingResponses;
     private final AtomicBoolean hasResponsed = new AtomicBoolean(false);
+    private volatile Timeout timeout;
 
     /**
      * Constructor
      *
      * @param ctx the channel context
      * @param header the message pack header
+     * @param maxPendingResponses the max pending responses of the connection
      */
-    public InlongTcpSourceCallback(ChannelHandlerContext ctx, MessagePackHeader header) {
+    public InlongTcpSourceCallback(ChannelHandlerContext ctx, MessagePackHeader header, int maxPendingResponses) {
         this.ctx = ctx;
         this.header = header;
-        this.latch = new CountDownLatch(1);
+        this.maxPendingResponses = maxPendingResponses;
+    }
+
+    /**
+     * Start waiting for the response of the sink, must be called before the event is put to the channel.
+     *
+     * @param timeoutMs the max wait time, a reject response is sent after it
+     */
+    public void startWaiting(long timeoutMs) {
+        Channel remoteChannel = ctx.channel();
+        getPendingResponses(remoteChannel).incrementAndGet();
+        // back pressure to the client until the sink catches up
+        updateReadState(remoteChannel, maxPendingResponses);
+        this.timeout = timeoutTimer.newTimeout(t -> callback(ResultCode.ERR_REJECT), timeoutMs, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -70,6 +108,11 @@ public class InlongTcpSourceCallback implements SourceCallback {
         if (this.hasResponsed.getAndSet(true)) {
             return;
         }
+        Timeout curTimeout = this.timeout;
+        if (curTimeout != null) {
+            curTimeout.cancel();
+        }
+        Channel remoteChannel = ctx.channel();
         // response
         try {
             ResponseInfo.Builder builder = ResponseInfo.newBuilder();
@@ -80,9 +123,9 @@ public class InlongTcpSourceCallback implements SourceCallback {
             byte[] responseBytes = builder.build().toByteArray();
             //
             ByteBuf buffer = Unpooled.wrappedBuffer(responseBytes);
-            Channel remoteChannel = ctx.channel();
             if (remoteChannel.isWritable()) {
-                remoteChannel.write(buffer);
+                // may be called by the sink thread, the write is executed in the I/O thread of the channel
+                remoteChannel.writeAndFlush(buffer);
             } else {
                 if (logCounter.shouldPrint()) {
                     logger.warn("the send buffer2 is full, so disconnect it!"
@@ -97,7 +140,8 @@ public class InlongTcpSourceCallback implements SourceCallback {
             }
         } finally {
             // notice TCP session
-            this.latch.countDown();
+            getPendingResponses(remoteChannel).decrementAndGet();
+            updateReadState(remoteChannel, maxPendingResponses);
         }
     }
 
@@ -111,12 +155,70 @@ public class InlongTcpSourceCallback implements SourceCallback {
     }
 
     /**
-     * get latch
+     * get the pending response count of the channel
+     *
+     * @param channel the channel
+     * @return the pending response count
+     */
+    public static AtomicInteger getPendingResponses(Channel channel) {
+        AtomicInteger pendingResponses = channel.attr(PENDING_RESPONSES).get();
+        if (pendingResponses == null) {
+            pendingResponses = new AtomicInteger(0);
+            AtomicInteger existing = channel.attr(PENDING_RESPONSES).setIfAbsent(pendingResponses);
+            if (existing != null) {
+                pendingResponses = existing;
+            }
+        }
+        return pendingResponses;
+    }
+
+    /**
+     * check whether the channel stops reading for the pending responses
      *
-     * @return the latch
+     * @param channel the channel
+     * @return true if the channel stops reading
      */
-    public CountDownLatch getLatch() {
-        return latch;
+    public static boolean isReadSuspended(Channel channel) {
+        AtomicBoolean readSuspended = channel.attr(READ_SUSPENDED).get();
+        return readSuspended != null && readSuspended.get();
+    }
+
+    /**
+     * Suspend or resume reading of the channel by its pending responses, may be called by any thread.
+     *
+     * <p/>
+     * The flag is checked against the pending responses again after each switch, because the count may cross
+     * the other threshold before the switch, and the flag is applied to the auto-read in the I/O thread,
+     * so the last switch of the flag always wins.
+     */
+    private static void updateReadState(Channel channel, int maxPendingResponses) {
+        AtomicInteger pendingResponses = getPendingResponses(channel);
+        AtomicBoolean readSuspended = channel.attr(READ_SUSPENDED).get();
+        if (readSuspended == null) {
+            readSuspended = new AtomicBoolean(false);
+            AtomicBoolean existing = channel.attr(READ_SUSPENDED).setIfAbsent(readSuspended);
+            if (existing != null) {
+                readSuspended = existing;
+            }
+        }
+        while (true) {
+            int count = pendingResponses.get();
+            if (count >= maxPendingResponses && readSuspended.compareAndSet(false, true)) {
+                applyReadState(channel, readSuspended);
+            } else if (count <= maxPendingResponses / 2 && readSuspended.compareAndSet(true, false)) {
+                applyReadState(channel, readSuspended);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void applyReadState(Channel channel, AtomicBoolean readSuspended) {
+        if (channel.eventLoop().inEventLoop()) {
+            channel.config().setAutoRead(!readSuspended.get());
+        } else {
+            channel.eventLoop().execute(() -> channel.config().setAutoRead(!readSuspended.get()));
+        }
     }
 
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.common;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+import org.apache.inlong.sdk.commons.utils.GzipUtils;
+
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.xerial.snappy.Snappy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the pack body encoding, the protobuf builder against MessageObjsEncoder,
+ * run the main method or with "-prof gc" to compare the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageObjsEncoderBenchmark {
+
+    @Param({"NONE", "INLONG_SNAPPY", "INLONG_GZ"})
+    private String compressType;
+
+    @Param({"256"})
+    private int eventNum;
+
+    @Param({"1200"})
+    private int bodySize;
+
+    private InlongCompressType inlongCompressType;
+    private List<ProxyEvent> events;
+
+    @Setup
+    public void setup() {
+        this.inlongCompressType = InlongCompressType.valueOf(compressType);
+        this.events = TestMessageObjsEncoder.buildEvents(eventNum, bodySize);
+    }
+
+    @Benchmark
+    public byte[] builderEncode() throws Exception {
+        byte[] srcBytes = TestMessageObjsEncoder.encodeByBuilder(events);
+        switch (inlongCompressType) {
+            case INLONG_SNAPPY:
+                return Snappy.compress(srcBytes);
+            case INLONG_GZ:
+                return GzipUtils.compress(srcBytes);
+            default:
+                return srcBytes;
+        }
+    }
+
+    @Benchmark
+    public byte[] streamingEncode() throws Exception {
+        return MessageObjsEncoder.toByteArrayAndRelease(MessageObjsEncoder.encode(events, inlongCompressType));
+    }
+
+    @Benchmark
+    public int streamingEncodeToBuf() throws Exception {
+        // for the MQ client which accepts ByteBuffer
+        ByteBuf buffer = MessageObjsEncoder.encode(events, inlongCompressType);
+        int length = buffer.readableBytes();
+        buffer.release();
+        return length;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(MessageObjsEncoderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.common;
+
+import org.apache.inlong.common.enums.InlongCompressType;
+import org.apache.inlong.common.util.CompressUtils;
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MapFieldEntry;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObj;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObjs;
+import org.apache.inlong.sdk.commons.utils.GzipUtils;
+
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xerial.snappy.Snappy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestMessageObjsEncoder {
+
+    /**
+     * build events of a pack
+     */
+    public static List<ProxyEvent> buildEvents(int eventNum, int bodySize) {
+        Random random = new Random(eventNum);
+        List<ProxyEvent> events = new ArrayList<>(eventNum);
+        long msgTime = System.currentTimeMillis();
+        for (int i = 0; i < eventNum; i++) {
+            byte[] body = new byte[bodySize];
+            // half random bytes, so the body is compressible
+            for (int j = 0; j < bodySize / 2; j++) {
+                body[j] = (byte) random.nextInt(16);
+            }
+            ProxyEvent event = new ProxyEvent("group", "stream", body, msgTime + i, "127.0.0." + (i % 255));
+            event.getHeaders().put("key" + (i % 4), "value中" + i);
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * encode the events by the protobuf builder, as the former parseBody did
+     */
+    public static byte[] encodeByBuilder(List<ProxyEvent> events) {
+        MessageObjs.Builder objs = MessageObjs.newBuilder();
+        for (ProxyEvent event : events) {
+            MessageObj.Builder builder = MessageObj.newBuilder();
+            builder.setMsgTime(event.getMsgTime());
+            builder.setSourceIp(event.getSourceIp());
+            event.getHeaders().forEach((key, value) -> {
+                builder.addParams(MapFieldEntry.newBuilder().setKey(key).setValue(value));
+            });
+            builder.setBody(ByteString.copyFrom(event.getBody()));
+            objs.addMsgs(builder.build());
+        }
+        return objs.build().toByteArray();
+    }
+
+    @Test
+    public void testEncodeSameAsBuilder() throws Exception {
+        List<ProxyEvent> events = buildEvents(256, 1200);
+        byte[] expected = encodeByBuilder(events);
+        // none
+        byte[] actual = MessageObjsEncoder.toByteArrayAndRelease(
+                MessageObjsEncoder.encode(events, InlongCompressType.NONE));
+        Assert.assertArrayEquals(expected, actual);
+        // snappy
+        actual = MessageObjsEncoder.toByteArrayAndRelease(
+                MessageObjsEncoder.encode(events, InlongCompressType.INLONG_SNAPPY));
+        Assert.assertArrayEquals(expected, Snappy.uncompress(actual));
+        // gzip
+        actual = MessageObjsEncoder.toByteArrayAndRelease(
+                MessageObjsEncoder.encode(events, InlongCompressType.INLONG_GZ));
+        Assert.assertArrayEquals(expected, GzipUtils.decompress(actual));
+        // zstd
+        actual = MessageObjsEncoder.toByteArrayAndRelease(
+                MessageObjsEncoder.encode(events, InlongCompressType.INLONG_ZSTD));
+        Assert.assertArrayEquals(expected, CompressUtils.zstdDecompress(actual, 0, actual.length));
+        // lz4
+        actual = MessageObjsEncoder.toByteArrayAndRelease(
+                MessageObjsEncoder.encode(events, InlongCompressType.INLONG_LZ4));
+        Assert.assertArrayEquals(expected, CompressUtils.lz4Decompress(actual, 0, actual.length));
+        Assert.assertEquals(events.size(), MessageObjs.parseFrom(expected).getMsgsCount());
+    }
+
+    @Test
+    public void testEncodeEmptyPack() throws Exception {
+        List<ProxyEvent> events = new ArrayList<>();
+        ByteBuf buffer = MessageObjsEncoder.encode(events, InlongCompressType.INLONG_GZ);
+        Assert.assertEquals(0, buffer.readableBytes());
+        buffer.release();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.sink.mq;
+
+import org.apache.inlong.dataproxy.channel.BufferQueueChannel;
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+
+import org.apache.flume.ChannelException;
+import org.apache.flume.ChannelFullException;
+import org.apache.flume.Context;
+import org.apache.flume.Event;
+import org.apache.flume.Sink.Status;
+import org.apache.flume.Transaction;
+import org.junit.Assert;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput benchmark of channel to dispatch manager of MessageQueueZoneSink,
+ * with one event per transaction and with batch take, at 1 to 8 sink threads.
+ */
+public class TestMessageQueueZoneSinkBatchTake {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TestMessageQueueZoneSinkBatchTake.class);
+
+    private static final int EVENT_NUM = 200000;
+    private static final int UID_NUM = 16;
+    private static final int BATCH_COUNT = 200;
+    private static final int[] SINK_THREADS = {1, 2, 4, 8};
+
+    private static int sinkIndex = 0;
+
+    @Test
+    public void testChannelToDispatchThroughput() throws Exception {
+        for (int threadNum : SINK_THREADS) {
+            double singleRate = runBenchmark(threadNum, 1);
+            double batchRate = runBenchmark(threadNum, BATCH_COUNT);
+            LOG.info("sink threads {}: single take {} events/s, batch take({}) {} events/s",
+                    threadNum, String.format("%.0f", singleRate), BATCH_COUNT, String.format("%.0f", batchRate));
+        }
+    }
+
+    @Test
+    public void testBatchTakeLimitedBySize() throws Exception {
+        BufferQueueChannel channel = createChannel();
+        putEvents(channel, 10, 100);
+        MessageQueueZoneSink sink = createSink(channel, 1000, 250L);
+        BatchPackManager dispatchManager = Whitebox.getInternalState(sink, "dispatchManager");
+        AtomicLong inCounter = Whitebox.getInternalState(dispatchManager, "inCounter");
+        // the third event makes the taken bytes exceed the limit
+        Assert.assertEquals(Status.READY, sink.process());
+        Assert.assertEquals(3, inCounter.get());
+        Assert.assertEquals(Status.READY, sink.process());
+        Assert.assertEquals(Status.READY, sink.process());
+        Assert.assertEquals(Status.READY, sink.process());
+        Assert.assertEquals(10, inCounter.get());
+        Assert.assertEquals(Status.BACKOFF, sink.process());
+    }
+
+    @Test
+    public void testPartialDispatchFailureNotRequeueDispatched() throws Exception {
+        BufferQueueChannel channel = createChannel();
+        putEvents(channel, 10, 100, 2);
+        MessageQueueZoneSink sink = createSink(channel, 1000, 1024 * 1024L);
+        FailingBatchPackManager dispatchManager = new FailingBatchPackManager(sink, new Context());
+        Whitebox.setInternalState(sink, "dispatchManager", dispatchManager);
+        AtomicLong inCounter = Whitebox.getInternalState(dispatchManager, "inCounter");
+        // the events of the first uid are dispatched, then the batch fails
+        dispatchManager.failedAddCount = 1;
+        Assert.assertEquals(Status.BACKOFF, sink.process());
+        Assert.assertEquals(5, inCounter.get());
+        // only the events which are not dispatched are taken again
+        Assert.assertEquals(Status.READY, sink.process());
+        Assert.assertEquals(10, inCounter.get());
+        Assert.assertEquals(Status.BACKOFF, sink.process());
+        Assert.assertEquals(10, inCounter.get());
+    }
+
+    @Test
+    public void testDispatchFailureBeforeAnyDispatched() throws Exception {
+        BufferQueueChannel channel = createChannel();
+        putEvents(channel, 10, 100, 2);
+        MessageQueueZoneSink sink = createSink(channel, 1000, 1024 * 1024L);
+        FailingBatchPackManager dispatchManager = new FailingBatchPackManager(sink, new Context());
+        Whitebox.setInternalState(sink, "dispatchManager", dispatchManager);
+        AtomicLong inCounter = Whitebox.getInternalState(dispatchManager, "inCounter");
+        // nothing is dispatched, so the whole batch is rolled back
+        dispatchManager.failedAddCount = 0;
+        Assert.assertEquals(Status.BACKOFF, sink.process());
+        Assert.assertEquals(0, inCounter.get());
+        dispatchManager.failedAddCount = -1;
+        Assert.assertEquals(Status.READY, sink.process());
+        Assert.assertEquals(10, inCounter.get());
+        Assert.assertEquals(Status.BACKOFF, sink.process());
+    }
+
+    @Test
+    public void testRequeueRetriedWhenChannelFull() throws Exception {
+        FullableChannel channel = createChannel(new FullableChannel());
+        putEvents(channel, 10, 100, 2);
+        MessageQueueZoneSink sink = createSink(channel, 1000, 1024 * 1024L);
+        FailingBatchPackManager dispatchManager = new FailingBatchPackManager(sink, new Context());
+        Whitebox.setInternalState(sink, "dispatchManager", dispatchManager);
+        AtomicLong inCounter = Whitebox.getInternalState(dispatchManager, "inCounter");
+        List<?> pendingEvents = Whitebox.getInternalState(sink, "pendingRequeueEvents");
+        // the events of the first uid are dispatched, the others can not be put back to the full channel
+        dispatchManager.failedAddCount = 1;
+        channel.full = true;
+        Assert.assertEquals(Status.BACKOFF, sink.process());
+        Assert.assertEquals(5, inCounter.get());
+        Assert.assertEquals(5, pendingEvents.size());
+        // the undispatched events are kept while the channel is still full
+        dispatchManager.failedAddCount = -1;
+        Assert.assertEquals(Status.BACKOFF, sink.process());
+        Assert.assertEquals(5, inCounter.get());
+        Assert.assertEquals(5, pendingEvents.size());
+        // the events are put back and taken again once the channel has space
+        channel.full = false;
+        Assert.assertEquals(Status.READY, sink.process());
+        Assert.assertEquals(10, inCounter.get());
+        Assert.assertEquals(0, pendingEvents.size());
+        Assert.assertEquals(Status.BACKOFF, sink.process());
+        Assert.assertEquals(10, inCounter.get());
+    }
+
+    private double runBenchmark(int threadNum, int batchCount) throws Exception {
+        BufferQueueChannel channel = createChannel();
+        putEvents(channel, EVENT_NUM, 100);
+        List<MessageQueueZoneSink> sinks = new ArrayList<>();
+        for (int i = 0; i < threadNum; i++) {
+            sinks.add(createSink(channel, batchCount, 1024 * 1024L));
+        }
+        // drain the dispatch queues as the zone workers do
+        AtomicLong dispatchedCount = new AtomicLong(0);
+        List<Thread> threads = new ArrayList<>();
+        for (MessageQueueZoneSink sink : sinks) {
+            Thread worker = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    PackProfile profile = sink.pollDispatchedRecord();
+                    if (profile == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    sink.releaseAcquiredSizePermit(profile);
+                    dispatchedCount.addAndGet(profile.getCount());
+                }
+            });
+            worker.start();
+            threads.add(worker);
+        }
+        CountDownLatch done = new CountDownLatch(threadNum);
+        long startTime = System.nanoTime();
+        for (MessageQueueZoneSink sink : sinks) {
+            new Thread(() -> {
+                try {
+                    while (sink.process() == Status.READY) {
+                        // take until the channel is empty
+                    }
+                } catch (Exception e) {
+                    LOG.error("process failure", e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        Assert.assertTrue(done.await(120, TimeUnit.SECONDS));
+        long costNanos = System.nanoTime() - startTime;
+        // output the profiles still in cache
+        for (MessageQueueZoneSink sink : sinks) {
+            BatchPackManager dispatchManager = Whitebox.getInternalState(sink, "dispatchManager");
+            dispatchManager.setNeedOutputOvertimeData();
+            dispatchManager.outputOvertimeData();
+        }
+        long deadline = System.currentTimeMillis() + 30000L;
+        while (dispatchedCount.get() < EVENT_NUM && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        threads.forEach(Thread::interrupt);
+        Assert.assertEquals(EVENT_NUM, dispatchedCount.get());
+        return EVENT_NUM * 1e9 / costNanos;
+    }
+
+    private BufferQueueChannel createChannel() {
+        return createChannel(new BufferQueueChannel());
+    }
+
+    private <T extends BufferQueueChannel> T createChannel(T channel) {
+        Map<String, String> params = new HashMap<>();
+        params.put(BufferQueueChannel.KEY_MAX_BUFFERQUEUE_COUNT, String.valueOf(EVENT_NUM));
+        params.put(BufferQueueChannel.KEY_MAX_BUFFERQUEUE_SIZE_KB, String.valueOf(1024 * 1024));
+        channel.configure(new Context(params));
+        return channel;
+    }
+
+    private void putEvents(BufferQueueChannel channel, int eventNum, int bodySize) {
+        putEvents(channel, eventNum, bodySize, UID_NUM);
+    }
+
+    private void putEvents(BufferQueueChannel channel, int eventNum, int bodySize, int uidNum) {
+        long msgTime = System.currentTimeMillis();
+        Transaction tx = channel.getTransaction();
+        tx.begin();
+        for (int i = 0; i < eventNum; i++) {
+            channel.put(new ProxyEvent("group", "stream" + (i % uidNum), new byte[bodySize],
+                    msgTime, "127.0.0.1"));
+        }
+        tx.commit();
+        tx.close();
+    }
+
+    private MessageQueueZoneSink createSink(BufferQueueChannel channel, int batchCount, long batchSize) {
+        Map<String, String> params = new HashMap<>();
+        params.put(MessageQueueZoneSinkContext.KEY_MAX_TAKE_BATCH_COUNT, String.valueOf(batchCount));
+        params.put(MessageQueueZoneSinkContext.KEY_MAX_TAKE_BATCH_SIZE, String.valueOf(batchSize));
+        params.put(BatchPackManager.KEY_DISPATCH_TIMEOUT, "0");
+        Context context = new Context(params);
+        MessageQueueZoneSink sink = new MessageQueueZoneSink();
+        sink.setName("batch-take-sink-" + (sinkIndex++));
+        sink.setChannel(channel);
+        sink.configure(context);
+        Whitebox.setInternalState(sink, "cachedMsgChannel", channel);
+        MessageQueueZoneSinkContext sinkContext = new MessageQueueZoneSinkContext(sink, context, channel);
+        sinkContext.start();
+        Whitebox.setInternalState(sink, "context", sinkContext);
+        Whitebox.setInternalState(sink, "dispatchManager", new BatchPackManager(sink, context));
+        sink.setMQClusterStarted();
+        return sink;
+    }
+
+    /**
+     * Channel which rejects the events put while it is marked full.
+     */
+    private static class FullableChannel extends BufferQueueChannel {
+
+        private volatile boolean full = false;
+
+        @Override
+        public void put(Event event) throws ChannelException {
+            if (full) {
+                throw new ChannelFullException("mock channel full");
+            }
+            super.put(event);
+        }
+    }
+
+    /**
+     * Dispatch manager which fails to add the events after the given uid count is added.
+     */
+    private static class FailingBatchPackManager extends BatchPackManager {
+
+        // the count of uid added before the failure, negative if never fails
+        private volatile int failedAddCount = -1;
+        private int addCount = 0;
+
+        private FailingBatchPackManager(MessageQueueZoneSink mqZoneSink, Context context) {
+            super(mqZoneSink, context);
+        }
+
+        @Override
+        public void addEvents(List<ProxyEvent> events) {
+            if (failedAddCount >= 0 && addCount++ >= failedAddCount) {
+                addCount = 0;
+                throw new IllegalStateException("mock dispatch failure");
+            }
+            super.addEvents(events);
+        }
+    }
+}
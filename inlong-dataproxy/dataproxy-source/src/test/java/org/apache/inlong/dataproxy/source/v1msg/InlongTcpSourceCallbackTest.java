@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.source.v1msg;
+
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessagePackHeader;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.ResponseInfo;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.ResultCode;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local load test of the v1 message response by sink, the MQ is stubbed by a scheduled executor
+ * which saves each pack after a fixed latency.
+ */
+public class InlongTcpSourceCallbackTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InlongTcpSourceCallbackTest.class);
+
+    private static final int CLIENT_NUM = 4;
+    private static final int PACKS_PER_CLIENT = 500;
+    private static final int MAX_PENDING_RESPONSES = 64;
+    private static final long MQ_LATENCY_MS = 20L;
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private ScheduledExecutorService stubMq;
+    private final AtomicLong ioBusyNanos = new AtomicLong(0);
+    private final AtomicInteger backPressureCount = new AtomicInteger(0);
+    private final List<Channel> childChannels = new CopyOnWriteArrayList<>();
+    // the stub MQ drops the packs whose pack id is negative, so only the timeout responds
+    private volatile long responseTimeoutMs = 10000L;
+
+    @Before
+    public void setUp() {
+        bossGroup = new NioEventLoopGroup(1);
+        // a single I/O thread serves all the connections
+        workerGroup = new NioEventLoopGroup(1);
+        stubMq = Executors.newScheduledThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        stubMq.shutdownNow();
+        bossGroup.shutdownGracefully();
+        workerGroup.shutdownGracefully();
+    }
+
+    @Test
+    public void testResponseBySinkWithoutBlockingIoThread() throws Exception {
+        Channel server = startServer();
+        int port = ((InetSocketAddress) server.localAddress()).getPort();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_NUM);
+        long startTime = System.nanoTime();
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < CLIENT_NUM; i++) {
+            results.add(clients.submit(() -> sendPacks(port, PACKS_PER_CLIENT)));
+        }
+        int successCount = 0;
+        for (Future<Integer> result : results) {
+            successCount += result.get(60, TimeUnit.SECONDS);
+        }
+        long wallNanos = System.nanoTime() - startTime;
+        clients.shutdownNow();
+        server.close().sync();
+        double ioUtilisation = (double) ioBusyNanos.get() / wallNanos;
+        LOG.info("sent {} packs over {} connections in {} ms, I/O thread utilisation {}%, back pressure {} times",
+                CLIENT_NUM * PACKS_PER_CLIENT, CLIENT_NUM, TimeUnit.NANOSECONDS.toMillis(wallNanos),
+                String.format("%.2f", ioUtilisation * 100), backPressureCount.get());
+        Assert.assertEquals(CLIENT_NUM * PACKS_PER_CLIENT, successCount);
+        // each connection sends more packs than the pending limit without waiting for responses,
+        // so reading is turned off, and it must be turned on again for all the packs to be answered
+        Assert.assertTrue(backPressureCount.get() > 0);
+        Assert.assertEquals(CLIENT_NUM, childChannels.size());
+        for (Channel channel : childChannels) {
+            // the sink thread counts the response down after writing it
+            long deadline = System.currentTimeMillis() + 5000L;
+            while (InlongTcpSourceCallback.getPendingResponses(channel).get() > 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            Assert.assertEquals(0, InlongTcpSourceCallback.getPendingResponses(channel).get());
+            Assert.assertFalse(InlongTcpSourceCallback.isReadSuspended(channel));
+            Assert.assertTrue(channel.eventLoop().submit(() -> channel.config().isAutoRead()).get());
+        }
+    }
+
+    @Test
+    public void testAutoReadToggling() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        List<InlongTcpSourceCallback> callbacks = new ArrayList<>();
+        try {
+            for (int i = 0; i < MAX_PENDING_RESPONSES; i++) {
+                Assert.assertTrue(channel.config().isAutoRead());
+                MessagePackHeader header = MessagePackHeader.newBuilder().setPackId(i).buildPartial();
+                InlongTcpSourceCallback callback = new InlongTcpSourceCallback(ctx, header, MAX_PENDING_RESPONSES);
+                callback.startWaiting(responseTimeoutMs);
+                callbacks.add(callback);
+            }
+            // turned off when the pending responses reach the limit
+            Assert.assertFalse(channel.config().isAutoRead());
+            Assert.assertTrue(InlongTcpSourceCallback.isReadSuspended(channel));
+            int index = 0;
+            while (index < MAX_PENDING_RESPONSES / 2 - 1) {
+                callbacks.get(index++).callback(ResultCode.SUCCUSS);
+                Assert.assertFalse(channel.config().isAutoRead());
+            }
+            // turned on when the pending responses drop to half of the limit
+            callbacks.get(index++).callback(ResultCode.SUCCUSS);
+            Assert.assertTrue(channel.config().isAutoRead());
+            Assert.assertFalse(InlongTcpSourceCallback.isReadSuspended(channel));
+            // a repeated response changes nothing
+            callbacks.get(0).callback(ResultCode.SUCCUSS);
+            Assert.assertEquals(MAX_PENDING_RESPONSES / 2, InlongTcpSourceCallback.getPendingResponses(channel).get());
+            while (index < MAX_PENDING_RESPONSES) {
+                callbacks.get(index++).callback(ResultCode.SUCCUSS);
+                Assert.assertTrue(channel.config().isAutoRead());
+            }
+            Assert.assertEquals(0, InlongTcpSourceCallback.getPendingResponses(channel).get());
+        } finally {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void testRejectAfterTimeout() throws Exception {
+        responseTimeoutMs = 200L;
+        Channel server = startServer();
+        int port = ((InetSocketAddress) server.localAddress()).getPort();
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            long startTime = System.currentTimeMillis();
+            writePack(out, -1);
+            ResponseInfo response = readResponse(in);
+            Assert.assertEquals(ResultCode.ERR_REJECT, response.getResult());
+            Assert.assertEquals(-1, response.getPackId());
+            Assert.assertTrue(System.currentTimeMillis() - startTime >= responseTimeoutMs);
+        } finally {
+            server.close().sync();
+        }
+    }
+
+    private Channel startServer() throws InterruptedException {
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        bootstrap.group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new LengthFieldPrepender(4));
+                        ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(1024, 0, 4, 0, 4));
+                        ch.pipeline().addLast(new StubSourceHandler());
+                    }
+                });
+        return bootstrap.bind("127.0.0.1", 0).sync().channel();
+    }
+
+    private int sendPacks(int port, int packNum) throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            // pipeline all the packs, the server limits the in-flight packs by back pressure
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int i = 0; i < packNum; i++) {
+                        writePack(out, i);
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    LOG.error("send pack failure", e);
+                }
+            });
+            writer.start();
+            int successCount = 0;
+            for (int i = 0; i < packNum; i++) {
+                if (readResponse(in).getResult() == ResultCode.SUCCUSS) {
+                    successCount++;
+                }
+            }
+            return successCount;
+        }
+    }
+
+    private static void writePack(DataOutputStream out, int packId) throws IOException {
+        out.writeInt(4);
+        out.writeInt(packId);
+    }
+
+    private static ResponseInfo readResponse(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return ResponseInfo.parseFrom(bytes);
+    }
+
+    private class StubSourceHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            long startTime = System.nanoTime();
+            if (!childChannels.contains(ctx.channel())) {
+                childChannels.add(ctx.channel());
+            }
+            ByteBuf buf = (ByteBuf) msg;
+            try {
+                int packId = buf.readInt();
+                MessagePackHeader header = MessagePackHeader.newBuilder().setPackId(packId).buildPartial();
+                InlongTcpSourceCallback callback =
+                        new InlongTcpSourceCallback(ctx, header, MAX_PENDING_RESPONSES);
+                callback.startWaiting(responseTimeoutMs);
+                if (!ctx.channel().config().isAutoRead()) {
+                    backPressureCount.incrementAndGet();
+                }
+                if (packId >= 0) {
+                    stubMq.schedule(() -> callback.callback(ResultCode.SUCCUSS),
+                            MQ_LATENCY_MS, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                buf.release();
+                ioBusyNanos.addAndGet(System.nanoTime() - startTime);
+            }
+        }
+    }
+}
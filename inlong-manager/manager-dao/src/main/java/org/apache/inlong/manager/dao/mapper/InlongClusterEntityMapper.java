@@ -19,6 +19,7 @@ package org.apache.inlong.manager.dao.mapper;
 
 import org.apache.inlong.manager.dao.entity.InlongClusterEntity;
 import org.apache.inlong.manager.pojo.cluster.ClusterPageRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigWatermark;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceClusterInfo;
 
 import org.apache.ibatis.annotations.Options;
@@ -56,6 +57,13 @@ public interface InlongClusterEntityMapper {
     @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
     Cursor<SortSourceClusterInfo> selectAllClusters();
 
+    /**
+     * Select the change watermark of all clusters, used to check if the sort config changed.
+     *
+     * @return row count, version sum and latest modify time, including the deleted rows
+     */
+    SortConfigWatermark selectSortConfigWatermark();
+
     List<InlongClusterEntity> selectByClusterTag(@Param("clusterTag") String clusterTag);
 
     int updateById(InlongClusterEntity record);
@@ -24,6 +24,7 @@ import org.apache.inlong.manager.pojo.cluster.ClusterPageRequest;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -33,6 +34,14 @@ public interface InlongClusterNodeEntityMapper {
 
     int insertOnDuplicateKeyUpdate(InlongClusterNodeEntity record);
 
+    /**
+     * Insert the cluster nodes in batch, update the load, ext params and status for the existing ones.
+     *
+     * @param recordList cluster nodes, the existing ones must have the id set
+     * @return rows affected
+     */
+    int insertOnDuplicateKeyUpdateBatch(@Param("list") List<InlongClusterNodeEntity> recordList);
+
     InlongClusterNodeEntity selectById(Integer id);
 
     InlongClusterNodeEntity selectByUniqueKey(ClusterNodeRequest request);
@@ -46,6 +55,9 @@ public interface InlongClusterNodeEntityMapper {
 
     List<InlongClusterNodeEntity> selectByParentIdAndIp(@Param("parentId") Integer parentId, @Param("ip") String ip);
 
+    List<InlongClusterNodeEntity> selectByParentIdsAndIps(@Param("parentIdList") Collection<Integer> parentIdList,
+            @Param("ipList") Collection<String> ipList);
+
     int updateById(InlongClusterNodeEntity record);
 
     int updateByIdSelective(InlongClusterNodeEntity record);
@@ -22,6 +22,7 @@ import org.apache.inlong.manager.dao.entity.InlongGroupEntity;
 import org.apache.inlong.manager.pojo.group.InlongGroupBriefInfo;
 import org.apache.inlong.manager.pojo.group.InlongGroupPageRequest;
 import org.apache.inlong.manager.pojo.group.InlongGroupTopicRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigWatermark;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceGroupInfo;
 
 import org.apache.ibatis.annotations.Options;
@@ -75,6 +76,24 @@ public interface InlongGroupEntityMapper {
     @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
     Cursor<SortSourceGroupInfo> selectAllGroups();
 
+    /**
+     * Select the change watermark of all groups, used to check if the sort config changed.
+     *
+     * @return row count, version sum and latest modify time, including the deleted rows
+     */
+    @MultiTenantQuery(with = false)
+    SortConfigWatermark selectSortConfigWatermark();
+
+    /**
+     * Select the groups modified since the given time, used to refresh the agent task snapshot.
+     *
+     * @param modifyTime select all the not deleted groups if null,
+     *         otherwise select the groups (including the deleted ones) modified since this time
+     * @return group list
+     */
+    @MultiTenantQuery(with = false)
+    List<InlongGroupEntity> selectModifiedSince(@Param("modifyTime") Date modifyTime);
+
     /**
      * Select all groups which are logical deleted before the specified last modify time
      * <p/>
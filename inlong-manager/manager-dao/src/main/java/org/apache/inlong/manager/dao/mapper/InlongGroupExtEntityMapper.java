@@ -18,6 +18,7 @@
 package org.apache.inlong.manager.dao.mapper;
 
 import org.apache.inlong.manager.dao.entity.InlongGroupExtEntity;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigWatermark;
 
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
@@ -51,6 +52,13 @@ public interface InlongGroupExtEntityMapper {
     @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
     Cursor<InlongGroupExtEntity> selectByKeyName(@Param("keyName") String keyName);
 
+    /**
+     * Select the change watermark of all group ext infos, used to check if the sort config changed.
+     *
+     * @return row count and latest modify time, including the deleted rows
+     */
+    SortConfigWatermark selectSortConfigWatermark();
+
     /**
      * Insert data in batches
      *
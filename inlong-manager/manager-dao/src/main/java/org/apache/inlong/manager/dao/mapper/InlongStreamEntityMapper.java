@@ -18,6 +18,7 @@
 package org.apache.inlong.manager.dao.mapper;
 
 import org.apache.inlong.manager.dao.entity.InlongStreamEntity;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigWatermark;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceStreamInfo;
 import org.apache.inlong.manager.pojo.stream.InlongStreamBriefInfo;
 import org.apache.inlong.manager.pojo.stream.InlongStreamPageRequest;
@@ -28,6 +29,7 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -58,6 +60,22 @@ public interface InlongStreamEntityMapper {
     @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
     Cursor<SortSourceStreamInfo> selectAllStreams();
 
+    /**
+     * Select the change watermark of all streams, used to check if the sort config changed.
+     *
+     * @return row count, version sum and latest modify time, including the deleted rows
+     */
+    SortConfigWatermark selectSortConfigWatermark();
+
+    /**
+     * Select the streams modified since the given time, used to refresh the agent task snapshot.
+     *
+     * @param modifyTime select all the not deleted streams if null,
+     *         otherwise select the streams (including the deleted ones) modified since this time
+     * @return stream list
+     */
+    List<InlongStreamEntity> selectModifiedSince(@Param("modifyTime") Date modifyTime);
+
     int updateByPrimaryKey(InlongStreamEntity record);
 
     int updateByIdentifierSelective(InlongStreamEntity streamEntity);
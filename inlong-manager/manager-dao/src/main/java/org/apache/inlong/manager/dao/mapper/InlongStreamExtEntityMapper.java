@@ -18,6 +18,7 @@
 package org.apache.inlong.manager.dao.mapper;
 
 import org.apache.inlong.manager.dao.entity.InlongStreamExtEntity;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigWatermark;
 
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
@@ -54,6 +55,13 @@ public interface InlongStreamExtEntityMapper {
     @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
     Cursor<InlongStreamExtEntity> selectByKeyName(@Param("keyName") String keyName);
 
+    /**
+     * Select the change watermark of all stream ext infos, used to check if the sort config changed.
+     *
+     * @return row count and latest modify time, including the deleted rows
+     */
+    SortConfigWatermark selectSortConfigWatermark();
+
     int updateByPrimaryKey(InlongStreamExtEntity record);
 
     /**
@@ -21,6 +21,7 @@ import org.apache.inlong.manager.dao.entity.StreamSinkEntity;
 import org.apache.inlong.manager.pojo.sink.SinkBriefInfo;
 import org.apache.inlong.manager.pojo.sink.SinkInfo;
 import org.apache.inlong.manager.pojo.sink.SinkPageRequest;
+import org.apache.inlong.manager.pojo.sort.standalone.SortConfigWatermark;
 import org.apache.inlong.manager.pojo.sort.standalone.SortIdInfo;
 import org.apache.inlong.manager.pojo.sort.standalone.SortSourceStreamSinkInfo;
 import org.apache.inlong.manager.pojo.sort.standalone.SortTaskInfo;
@@ -31,6 +32,7 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -148,6 +150,21 @@ public interface StreamSinkEntityMapper {
     @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
     Cursor<SortSourceStreamSinkInfo> selectAllStreams();
 
+    /**
+     * Select the change watermark of all stream sinks, used to check if the sort config changed.
+     *
+     * @return row count, version sum and latest modify time, including the deleted rows
+     */
+    SortConfigWatermark selectSortConfigWatermark();
+
+    /**
+     * Select the stream sinks modified since the given time, including the deleted ones.
+     *
+     * @param modifyTime lower bound of the modify time, inclusive
+     * @return stream sinks modified since the given time
+     */
+    List<StreamSinkEntity> selectModifiedSince(@Param("modifyTime") Date modifyTime);
+
     int updateByIdSelective(StreamSinkEntity record);
 
     int updateStatus(StreamSinkEntity entity);
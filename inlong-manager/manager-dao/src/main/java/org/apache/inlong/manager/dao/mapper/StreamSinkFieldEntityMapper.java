@@ -42,6 +42,14 @@ public interface StreamSinkFieldEntityMapper {
     @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
     Cursor<SortFieldInfo> selectAllFields();
 
+    /**
+     * Select the fields of the given stream sinks for sort-standalone.
+     *
+     * @param sinkIdList stream sink id list
+     * @return fields of the given stream sinks
+     */
+    List<SortFieldInfo> selectFieldsBySinkIds(@Param("sinkIdList") List<Integer> sinkIdList);
+
     /**
      * According to the sink id, query the sink field.
      *
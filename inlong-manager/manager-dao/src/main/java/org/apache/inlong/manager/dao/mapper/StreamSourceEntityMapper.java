@@ -23,6 +23,7 @@ import org.apache.inlong.manager.pojo.source.SourcePageRequest;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -140,6 +141,21 @@ public interface StreamSourceEntityMapper {
             @Param("agentIp") String agentIp,
             @Param("clusterName") String clusterName);
 
+    /**
+     * Query the sub sources copied from the template sources and modified since the given time,
+     * only the id, task map id, agent ip, is_deleted and modify time are returned.
+     *
+     * @param modifyTime query all the not deleted sub sources if null,
+     *         otherwise query the sub sources (including the deleted ones) modified since this time
+     */
+    List<StreamSourceEntity> selectSubSourcesModifiedSince(@Param("modifyTime") Date modifyTime);
+
+    /**
+     * Query the heartbeat timeout sources of the given agents in the cluster.
+     */
+    List<Integer> selectHeartbeatTimeoutIdsByAgentIps(@Param("clusterName") String clusterName,
+            @Param("agentIpList") List<String> agentIpList);
+
     int updateByPrimaryKeySelective(StreamSourceEntity record);
 
     int updateByPrimaryKey(StreamSourceEntity record);